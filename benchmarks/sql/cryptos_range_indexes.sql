@@ -0,0 +1,100 @@
+-- Compares latency of CryptoRepository range queries before and after
+-- V5__create_cryptos_range_indexes.sql on a synthetic dataset.
+--
+-- Everything is created in a separate "bench" schema, so it can be run against any database:
+--
+--   psql -h localhost -p 5433 -U postgres -d cryptodb -f benchmarks/sql/cryptos_range_indexes.sql
+--
+-- dataset size can be changed with: -v symbols=10 -v ticks=1000000 (default 10M rows)
+-- every query is run once to warm up the cache and then with EXPLAIN ANALYZE, compare
+-- "Execution Time" and the plan node (Seq Scan/Bitmap Heap Scan before, Index Only Scan after)
+
+\set ON_ERROR_STOP on
+\if :{?symbols}
+\else
+  \set symbols 10
+\endif
+\if :{?ticks}
+\else
+  \set ticks 1000000
+\endif
+\set name_id 1
+\set range_start '''2021-06-01 00:00:00'''
+\set range_end '''2021-12-01 00:00:00'''
+
+drop schema if exists bench cascade;
+create schema bench;
+set search_path to bench;
+
+-- same tables as V1 and V2 migrations
+create table crypto_names
+(
+    id bigserial primary key,
+    name varchar,
+    constraint crypto_names_unique_name_constraint unique (name)
+);
+
+create table cryptos
+(
+    id bigserial primary key,
+    crypto_name_id bigserial REFERENCES crypto_names (id),
+    price double precision not null,
+    timestamp timestamp,
+    constraint cryptos_unique_timestamp_name_id_constraint unique (timestamp, crypto_name_id)
+);
+
+-- one tick per minute for every symbol
+insert into crypto_names (name) select 'SYM' || i from generate_series(1, :symbols) i;
+insert into cryptos (crypto_name_id, price, timestamp)
+select n.id, round((100 + random() * 10)::numeric, 2), timestamp '2021-01-01' + t * interval '1 minute'
+from crypto_names n, generate_series(0, :ticks - 1) t;
+vacuum analyze cryptos;
+
+select count(*) as rows from cryptos;
+
+-- queries below are the sql hibernate generates for CryptoRepository methods
+prepare find_oldest(bigint, timestamp, timestamp) as
+  select * from cryptos c where c.timestamp >= $2 and c.timestamp < $3 and c.crypto_name_id = $1
+  and c.timestamp = (select min(c2.timestamp) from cryptos c2
+                     where c2.crypto_name_id = $1 and c2.timestamp >= $2 and c2.timestamp < $3);
+prepare find_newest(bigint, timestamp, timestamp) as
+  select * from cryptos c where c.timestamp >= $2 and c.timestamp < $3 and c.crypto_name_id = $1
+  and c.timestamp = (select max(c2.timestamp) from cryptos c2
+                     where c2.crypto_name_id = $1 and c2.timestamp >= $2 and c2.timestamp < $3);
+prepare find_min(bigint, timestamp, timestamp) as
+  select * from cryptos c where c.timestamp >= $2 and c.timestamp < $3 and c.crypto_name_id = $1
+  and c.price = (select min(c2.price) from cryptos c2
+                 where c2.crypto_name_id = $1 and c2.timestamp >= $2 and c2.timestamp < $3);
+prepare find_max(bigint, timestamp, timestamp) as
+  select * from cryptos c where c.timestamp >= $2 and c.timestamp < $3 and c.crypto_name_id = $1
+  and c.price = (select max(c2.price) from cryptos c2
+                 where c2.crypto_name_id = $1 and c2.timestamp >= $2 and c2.timestamp < $3);
+
+\echo '==================== before V5 indexes ===================='
+execute find_oldest(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_oldest(:name_id, :range_start, :range_end);
+execute find_newest(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_newest(:name_id, :range_start, :range_end);
+execute find_min(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_min(:name_id, :range_start, :range_end);
+execute find_max(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_max(:name_id, :range_start, :range_end);
+
+-- same statements as V5 migration
+create index cryptos_name_id_timestamp_idx on cryptos (crypto_name_id, timestamp) include (price);
+create index cryptos_name_id_price_idx on cryptos (crypto_name_id, price) include (timestamp);
+-- index-only scans need an up to date visibility map
+vacuum analyze cryptos;
+
+\echo '==================== after V5 indexes ===================='
+execute find_oldest(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_oldest(:name_id, :range_start, :range_end);
+execute find_newest(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_newest(:name_id, :range_start, :range_end);
+execute find_min(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_min(:name_id, :range_start, :range_end);
+execute find_max(:name_id, :range_start, :range_end);
+explain (analyze, buffers) execute find_max(:name_id, :range_start, :range_end);
+
+reset search_path;
+drop schema bench cascade;
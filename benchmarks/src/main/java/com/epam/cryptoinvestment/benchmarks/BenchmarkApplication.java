@@ -0,0 +1,75 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.CryptoInvestmentApplication;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+  the application (without web server unless it is asked for) on a throwaway postgres started
+  by testcontainers (same jdbc:tc: url as in the tests, so docker has to be running), another
+  database can be given with -Dbenchmarks.datasource.url (and .username, .password)
+
+  prices are imported from SyntheticPrices on startup the same way as in the application,
+  properties can be overridden by the benchmark (e.g. to switch the read path)
+*/
+public class BenchmarkApplication implements AutoCloseable {
+
+  private final ConfigurableApplicationContext context;
+  private final ClassLoader previousClassLoader;
+
+  public BenchmarkApplication(SyntheticPrices prices, Map<String, Object> properties) {
+    this(prices, properties, WebApplicationType.NONE);
+  }
+
+  public BenchmarkApplication(SyntheticPrices prices, Map<String, Object> properties,
+                              WebApplicationType webApplicationType) {
+    var arguments = new HashMap<String, Object>();
+    arguments.put("spring.datasource.url",
+                  System.getProperty("benchmarks.datasource.url", "jdbc:tc:postgresql:13.1-alpine:///benchmarks"));
+    arguments.put("spring.datasource.username", System.getProperty("benchmarks.datasource.username", "postgres"));
+    arguments.put("spring.datasource.password", System.getProperty("benchmarks.datasource.password", "postgres"));
+    arguments.put("prices.directory.path", SyntheticPrices.DIRECTORY);
+    // benchmarks start when the data is imported
+    arguments.put("prices.import.async", false);
+    arguments.put("logging.level.com.epam.cryptoinvestment", "warn");
+    arguments.putAll(properties);
+
+    // importer looks for the files with the context class loader, its threads inherit it
+    previousClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(prices.getClassLoader());
+    // passed as command line arguments, they override application.properties
+    context = new SpringApplicationBuilder(CryptoInvestmentApplication.class)
+        .web(webApplicationType)
+        .run(arguments.entrySet()
+                      .stream()
+                      .map(argument -> "--" + argument.getKey() + "=" + argument.getValue())
+                      .toArray(String[]::new));
+  }
+
+  // port of the web server, when it is started with server.port=0
+  public int getLocalPort() {
+    return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+  }
+
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  /*
+    removes imported prices, so the next import starts from an empty database
+  */
+  public void truncatePrices() {
+    getBean(JdbcTemplate.class).execute(
+        "truncate cryptos, imported_files, crypto_daily_rollups, crypto_monthly_rollups");
+  }
+
+  @Override
+  public void close() {
+    context.close();
+    Thread.currentThread().setContextClassLoader(previousClassLoader);
+  }
+}
@@ -0,0 +1,93 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.requests.DayRequest;
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  service calls behind the endpoints on generated data, for every read path:
+  raw - queries on cryptos table, rollups - daily and monthly rollups,
+  store - in memory series (see CryptoSeriesStore)
+
+  stats cache has size 0 by default, so every call reads the data, with cacheSize > 0
+  it measures cache hits instead
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CryptoInvestmentBenchmark {
+
+  @Param({"10"})
+  private int symbols;
+
+  @Param({"100000"})
+  private int ticks;
+
+  @Param({"raw", "rollups", "store"})
+  private String readPath;
+
+  @Param({"0"})
+  private int cacheSize;
+
+  private SyntheticPrices prices;
+  private BenchmarkApplication application;
+  private CryptoInvestment cryptoInvestment;
+
+  // a month in the middle of generated data, so both edges are partial days
+  private final MonthRequest monthRequest = new MonthRequest("2022-3-15", 1);
+  private final DayRequest dayRequest = new DayRequest("2022-3-15", -7);
+  private final String crypto = SyntheticPrices.symbol(0);
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    prices = new SyntheticPrices(symbols, ticks);
+    application = new BenchmarkApplication(prices, Map.of(
+        "prices.rollups.enabled", "rollups".equals(readPath),
+        "prices.store.enabled", "store".equals(readPath),
+        "cache.stats.maximum-size", cacheSize));
+    cryptoInvestment = application.getBean(CryptoInvestment.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() throws IOException {
+    application.close();
+    prices.close();
+  }
+
+  @Benchmark
+  public List<CryptoPrice> getNormalizedPricesForMonth() {
+    return cryptoInvestment.getNormalizedPricesForMonth(monthRequest);
+  }
+
+  @Benchmark
+  public CryptoStatsResponse getCryptoStatsForMonth() {
+    return cryptoInvestment.getCryptoStatsForMonth(crypto, monthRequest);
+  }
+
+  @Benchmark
+  public CryptoPrice getMaxNormalizedCrypto() {
+    return cryptoInvestment.getMaxNormalizedCrypto(dayRequest);
+  }
+}
@@ -0,0 +1,113 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.csv.PriceCsvParser;
+import com.epam.cryptoinvestment.csv.PriceRowHandler;
+import com.opencsv.CSVReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+  compares the old way of reading price files (opencsv reader, one String[] per line and
+  Long/Double.parseLong) with PriceCsvParser on a mapped file and on a stream.
+  file is generated once per trial in the temp directory, rows are given to a blackhole,
+  the score is the time to read the whole file
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvParserBenchmark {
+
+  private static final String[] SYMBOLS = {"BTC", "DOGE", "ETH", "LTC", "XRP"};
+
+  @Param({"1000000"})
+  private int rows;
+
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void createFile() throws IOException {
+    file = Files.createTempFile("prices", ".csv");
+    long timestamp = 1641009600000L;
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write("timestamp,symbol,price\n");
+      for (int i = 0; i < rows; i++) {
+        timestamp += 60_000;
+        var symbol = SYMBOLS[i * SYMBOLS.length / rows];
+        writer.write(timestamp + "," + symbol + "," + (40000 + (i % 10000) * 0.37) + "\n");
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public void openCsvReader(Blackhole blackhole) throws Exception {
+    try (var reader = new CSVReader(new InputStreamReader(Files.newInputStream(file)))) {
+      reader.skip(1);
+      String[] line;
+      while ((line = reader.readNext()) != null) {
+        blackhole.consume(Long.parseLong(line[0]));
+        blackhole.consume(line[1]);
+        blackhole.consume(Double.parseDouble(line[2]));
+      }
+    }
+  }
+
+  @Benchmark
+  public void priceParserMapped(Blackhole blackhole) throws IOException {
+    new PriceCsvParser().parse(file, new BlackholeHandler(blackhole));
+  }
+
+  @Benchmark
+  public void priceParserStream(Blackhole blackhole) throws IOException {
+    try (var input = new BufferedInputStream(Files.newInputStream(file))) {
+      new PriceCsvParser().parse(input, new BlackholeHandler(blackhole));
+    }
+  }
+
+  private static class BlackholeHandler implements PriceRowHandler {
+
+    private final Blackhole blackhole;
+
+    BlackholeHandler(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onRow(long timestamp, String symbol, double price) {
+      blackhole.consume(timestamp);
+      blackhole.consume(symbol);
+      blackhole.consume(price);
+    }
+
+    @Override
+    public void onInvalidLine(long lineNumber) {
+      blackhole.consume(lineNumber);
+    }
+  }
+}
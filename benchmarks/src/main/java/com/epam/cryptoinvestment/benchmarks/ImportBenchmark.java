@@ -0,0 +1,69 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.service.PricesImporter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  time to import all the generated files into an empty database: parsing, batch inserts,
+  imported_files bookkeeping and rollups refresh, the same as on application startup.
+  rows per second = symbols * ticks / score
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+
+  @Param({"10"})
+  private int symbols;
+
+  @Param({"100000"})
+  private int ticks;
+
+  @Param({"4"})
+  private int threads;
+
+  private SyntheticPrices prices;
+  private BenchmarkApplication application;
+  private PricesImporter pricesImporter;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    prices = new SyntheticPrices(symbols, ticks);
+    application = new BenchmarkApplication(prices, Map.of("import.threads", threads));
+    pricesImporter = application.getBean(PricesImporter.class);
+  }
+
+  @Setup(Level.Iteration)
+  public void truncatePrices() {
+    application.truncatePrices();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() throws IOException {
+    application.close();
+    prices.close();
+  }
+
+  @Benchmark
+  public void importAll() {
+    pricesImporter.importAll();
+  }
+}
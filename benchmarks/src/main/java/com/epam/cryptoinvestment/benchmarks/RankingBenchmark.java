@@ -0,0 +1,72 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.analytics.TopK;
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  ranking of normalized prices: sorting all of them and taking the first `limit` (the old way)
+  compared with TopK on a stream and on a parallel stream, `symbols` normalized prices are
+  generated once per trial
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+
+  private static final Comparator<CryptoPrice> DESCENDING =
+      Comparator.comparingDouble(CryptoPrice::getPrice).reversed().thenComparing(CryptoPrice::getName);
+
+  @Param({"100", "5000"})
+  private int symbols;
+
+  @Param({"1", "10"})
+  private int limit;
+
+  private List<CryptoPrice> normalizedPrices;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    normalizedPrices = new ArrayList<>(symbols);
+    for (int i = 0; i < symbols; i++) {
+      normalizedPrices.add(new CryptoPrice("SYM" + i, random.nextDouble()));
+    }
+  }
+
+  @Benchmark
+  public List<CryptoPrice> sort() {
+    var sorted = new ArrayList<>(normalizedPrices);
+    sorted.sort(DESCENDING);
+    return sorted.subList(0, limit);
+  }
+
+  @Benchmark
+  public List<CryptoPrice> topK() {
+    return normalizedPrices.stream().collect(TopK.collector(limit, DESCENDING));
+  }
+
+  @Benchmark
+  public List<CryptoPrice> parallelTopK() {
+    return normalizedPrices.parallelStream().collect(TopK.collector(limit, DESCENDING));
+  }
+}
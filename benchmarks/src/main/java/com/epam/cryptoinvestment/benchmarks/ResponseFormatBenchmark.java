@@ -0,0 +1,109 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
+import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
+import com.epam.cryptoinvestment.responses.NormalizedCryptosResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/*
+  time to serialize the responses of stats/normalized (cryptos param) and stats/crypto
+  (ties param, number of min and max price points) as json and as the binary formats from
+  BinaryFormatsConfig. mappers have the same settings as in the application
+  (spring boot writes dates as strings). bytes on the wire of every response are printed
+  in the setup, they don't depend on the run
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+  private static final ZonedDateTime START = ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"100"})
+  private int cryptos;
+
+  @Param({"100"})
+  private int ties;
+
+  private ObjectMapper mapper;
+  private NormalizedCryptosResponse normalized;
+  private CryptoStatsResponse stats;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    mapper = Jackson2ObjectMapperBuilder.json()
+                                        .factory(factory(format))
+                                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                                        .build();
+
+    var prices = new ArrayList<CryptoPrice>();
+    for (int i = 0; i < cryptos; i++) {
+      prices.add(new CryptoPrice(SyntheticPrices.symbol(i), 1.0 / (i + 3)));
+    }
+    normalized = new NormalizedCryptosResponse(prices);
+    stats = new CryptoStatsResponse("BTC", new CryptoPricePoint(START, 46813.21),
+                                    new CryptoPricePoint(START.plusDays(30), 38415.79),
+                                    points(33276.59), points(47722.66), ties, ties);
+
+    System.out.printf("%n%s bytes: normalized %d, stats %d%n", format,
+                      mapper.writeValueAsBytes(normalized).length, mapper.writeValueAsBytes(stats).length);
+  }
+
+  private List<CryptoPricePoint> points(double price) {
+    var points = new ArrayList<CryptoPricePoint>();
+    for (int i = 0; i < ties; i++) {
+      points.add(new CryptoPricePoint(START.plusHours(i), price));
+    }
+    return points;
+  }
+
+  private static JsonFactory factory(String format) {
+    switch (format) {
+      case "cbor":
+        return new CBORFactory();
+      case "smile":
+        return new SmileFactory();
+      default:
+        return new JsonFactory();
+    }
+  }
+
+  @Benchmark
+  public byte[] normalizedPrices() throws Exception {
+    return mapper.writeValueAsBytes(normalized);
+  }
+
+  @Benchmark
+  public byte[] cryptoStats() throws Exception {
+    return mapper.writeValueAsBytes(stats);
+  }
+}
@@ -0,0 +1,102 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+/*
+  load test of the stats endpoint over http: more clients (benchmark threads) than tomcat
+  threads, so the server is saturated, for every stats executor (see StatsExecutorConfig):
+  DIRECT - queries run one by one on tomcat threads (as the synchronous handler did)
+  POOL - queries of a request run at the same time on the stats executor
+
+  rate limits are off and the cache is disabled, so every request runs its queries,
+  throughput is requests per second of all clients together
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class StatsLoadBenchmark {
+
+  private static final String MONTH = "{\"start\": \"2022-3-15\", \"months\": 1}";
+
+  @Param({"10"})
+  private int symbols;
+
+  @Param({"100000"})
+  private int ticks;
+
+  @Param({"DIRECT", "POOL"})
+  private String executor;
+
+  @Param({"8"})
+  private int tomcatThreads;
+
+  private SyntheticPrices prices;
+  private BenchmarkApplication application;
+  private HttpClient client;
+  private URI[] uris;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    prices = new SyntheticPrices(symbols, ticks);
+    application = new BenchmarkApplication(prices, Map.of(
+        "server.port", 0,
+        "server.tomcat.threads.max", tomcatThreads,
+        "stats.async.executor", executor,
+        "cache.stats.maximum-size", 0,
+        "rate-limit.client.enabled", false,
+        "resilience4j.ratelimiter.instances.cryptoService.limitForPeriod", Integer.MAX_VALUE),
+        WebApplicationType.SERVLET);
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    uris = new URI[symbols];
+    for (int i = 0; i < symbols; i++) {
+      uris[i] = URI.create("http://localhost:" + application.getLocalPort()
+                           + "/api/v1/stats/crypto/" + SyntheticPrices.symbol(i));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() throws IOException {
+    application.close();
+    prices.close();
+  }
+
+  @Benchmark
+  public int getCryptoStats() throws IOException, InterruptedException {
+    var request = HttpRequest.newBuilder(uris[ThreadLocalRandom.current().nextInt(uris.length)])
+                             .header("Content-Type", "application/json")
+                             .POST(BodyPublishers.ofString(MONTH))
+                             .build();
+    int status = client.send(request, BodyHandlers.discarding()).statusCode();
+    if (status != 200) {
+      throw new IllegalStateException("stats request failed with " + status);
+    }
+    return status;
+  }
+}
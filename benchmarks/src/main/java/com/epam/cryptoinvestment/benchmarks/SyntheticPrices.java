@@ -0,0 +1,88 @@
+package com.epam.cryptoinvestment.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/*
+  generated price files, one file per symbol (SYM0_values.csv, SYM1_values.csv ...)
+  with ticks rows each, spread evenly over DAYS days starting from START.
+  prices are a random walk with a fixed seed, so every run gets the same data
+
+  application reads price files from the classpath, so files are written to prices directory
+  inside a temp directory and getClassLoader() returns a class loader which has it on the classpath
+*/
+public class SyntheticPrices implements AutoCloseable {
+
+  public static final String DIRECTORY = "prices";
+  public static final ZonedDateTime START = ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  public static final int DAYS = 180;
+
+  private final Path root;
+  private final int symbols;
+  private final int ticks;
+
+  public SyntheticPrices(int symbols, int ticks) {
+    this.symbols = symbols;
+    this.ticks = ticks;
+    try {
+      this.root = Files.createTempDirectory("benchmark-prices");
+      var directory = Files.createDirectory(root.resolve(DIRECTORY));
+      for (int i = 0; i < symbols; i++) {
+        write(directory.resolve(symbol(i) + "_values.csv"), symbol(i), i);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static String symbol(int i) {
+    return "SYM" + i;
+  }
+
+  public int getRows() {
+    return symbols * ticks;
+  }
+
+  public ClassLoader getClassLoader() {
+    try {
+      return new URLClassLoader(new URL[] {root.toUri().toURL()},
+                                SyntheticPrices.class.getClassLoader());
+    } catch (MalformedURLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void write(Path file, String symbol, long seed) throws IOException {
+    var random = new Random(seed);
+    long first = START.toInstant().toEpochMilli();
+    long step = Math.max(DAYS * 24 * 60 * 60 * 1000L / ticks, 1);
+    double price = 100 + random.nextInt(1000);
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write("timestamp,symbol,price\n");
+      for (int i = 0; i < ticks; i++) {
+        price = Math.max(price * (1 + (random.nextDouble() - 0.5) / 50), 0.01);
+        writer.write((first + i * step) + "," + symbol + "," + price + "\n");
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (Stream<Path> files = Files.walk(root)) {
+      for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+}
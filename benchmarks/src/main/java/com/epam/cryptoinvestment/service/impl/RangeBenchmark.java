@@ -0,0 +1,51 @@
+package com.epam.cryptoinvestment.service.impl;
+
+import com.epam.cryptoinvestment.model.Range;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  range arithmetic done for every request, it doesn't need the database,
+  it is in the same package as CryptoInvestmentImpl because the methods are package private
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeBenchmark {
+
+  @Param({"-6", "6"})
+  private int amount;
+
+  private CryptoInvestmentImpl cryptoInvestment;
+  private LocalDate date;
+
+  @Setup
+  public void setUp() {
+    cryptoInvestment = new CryptoInvestmentImpl(null, null, null, null, null, null, null, null);
+    date = LocalDate.of(2022, 3, 15);
+  }
+
+  @Benchmark
+  public Range getStartAndEndForMonths() {
+    return cryptoInvestment.getStartAndEndForMonths(date, amount);
+  }
+
+  @Benchmark
+  public Range getStartAndEndForDays() {
+    return cryptoInvestment.getStartAndEndForDays(date, amount);
+  }
+}
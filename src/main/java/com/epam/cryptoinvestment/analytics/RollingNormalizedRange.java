@@ -0,0 +1,56 @@
+package com.epam.cryptoinvestment.analytics;
+
+import java.util.Arrays;
+
+/*
+  normalized range (max - min) / min of one crypto in every window, windows are [start, end)
+  in epoch milliseconds and both their starts and ends are non decreasing (rolling windows)
+
+  prices are given one by one in timestamp order (from the database cursor or from memory),
+  when a price is after the end of the current window, the window is finished: prices which
+  are before its start are removed and min and max are taken from SlidingMinMax. so it is one
+  pass over the prices, the cost doesn't depend on the number of windows or how long they are
+*/
+public class RollingNormalizedRange {
+
+  private final long[] starts;
+  private final long[] ends;
+  private final double[] normalized;
+  private final SlidingMinMax window = new SlidingMinMax();
+  private int current;
+
+  public RollingNormalizedRange(long[] starts, long[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+    this.normalized = new double[ends.length];
+    Arrays.fill(normalized, Double.NaN);
+  }
+
+  public void accept(long timestamp, double price) {
+    while (current < ends.length && timestamp >= ends[current]) {
+      finishWindow();
+    }
+    if (current < ends.length) {
+      window.add(timestamp, price);
+    }
+  }
+
+  /*
+    normalized range for every window, NaN if there were no prices in the window
+    or min price is 0 (can't be normalized)
+  */
+  public double[] finish() {
+    while (current < ends.length) {
+      finishWindow();
+    }
+    return normalized;
+  }
+
+  private void finishWindow() {
+    window.removeBefore(starts[current]);
+    if (!window.isEmpty() && window.min() != 0) {
+      normalized[current] = (window.max() - window.min()) / window.min();
+    }
+    current++;
+  }
+}
@@ -0,0 +1,118 @@
+package com.epam.cryptoinvestment.analytics;
+
+/*
+  min and max of the prices in a window which moves forward in time, prices are added
+  at the end (in timestamp order) and removed from the beginning
+
+  it keeps two monotonic deques: min deque has prices which are increasing from the front,
+  a price is removed from the back when a lower or equal price is added, because it can't be
+  the min of any window which contains the new one (it would leave the window earlier).
+  max deque is the same with decreasing prices. so min and max are always at the front and
+  every price is added and removed at most once, whatever the window and the number of steps
+*/
+public class SlidingMinMax {
+
+  private final PriceDeque minDeque = new PriceDeque();
+  private final PriceDeque maxDeque = new PriceDeque();
+
+  public void add(long timestamp, double price) {
+    while (!minDeque.isEmpty() && minDeque.lastPrice() >= price) {
+      minDeque.removeLast();
+    }
+    minDeque.addLast(timestamp, price);
+    while (!maxDeque.isEmpty() && maxDeque.lastPrice() <= price) {
+      maxDeque.removeLast();
+    }
+    maxDeque.addLast(timestamp, price);
+  }
+
+  // removes prices with timestamp < start
+  public void removeBefore(long start) {
+    while (!minDeque.isEmpty() && minDeque.firstTimestamp() < start) {
+      minDeque.removeFirst();
+    }
+    while (!maxDeque.isEmpty() && maxDeque.firstTimestamp() < start) {
+      maxDeque.removeFirst();
+    }
+  }
+
+  public boolean isEmpty() {
+    return minDeque.isEmpty();
+  }
+
+  public double min() {
+    return minDeque.firstPrice();
+  }
+
+  public double max() {
+    return maxDeque.firstPrice();
+  }
+
+  /*
+    ring buffer of timestamps and prices in primitive arrays (no object for every price),
+    it grows the same way as ArrayDeque
+  */
+  private static class PriceDeque {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    long firstTimestamp() {
+      return timestamps[head];
+    }
+
+    double firstPrice() {
+      return prices[head];
+    }
+
+    double lastPrice() {
+      return prices[index(size - 1)];
+    }
+
+    void addLast(long timestamp, double price) {
+      if (size == timestamps.length) {
+        grow();
+      }
+      int i = index(size);
+      timestamps[i] = timestamp;
+      prices[i] = price;
+      size++;
+    }
+
+    void removeFirst() {
+      head = index(1);
+      size--;
+    }
+
+    void removeLast() {
+      size--;
+    }
+
+    private int index(int offset) {
+      return (head + offset) % timestamps.length;
+    }
+
+    // copies the elements to the beginning of bigger arrays
+    private void grow() {
+      int capacity = timestamps.length * 2;
+      var newTimestamps = new long[capacity];
+      var newPrices = new double[capacity];
+      int firstPart = Math.min(size, timestamps.length - head);
+      System.arraycopy(timestamps, head, newTimestamps, 0, firstPart);
+      System.arraycopy(prices, head, newPrices, 0, firstPart);
+      System.arraycopy(timestamps, 0, newTimestamps, firstPart, size - firstPart);
+      System.arraycopy(prices, 0, newPrices, firstPart, size - firstPart);
+      timestamps = newTimestamps;
+      prices = newPrices;
+      head = 0;
+    }
+  }
+}
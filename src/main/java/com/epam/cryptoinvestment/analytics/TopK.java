@@ -0,0 +1,58 @@
+package com.epam.cryptoinvestment.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+/*
+  first k elements in the order of the comparator without sorting all of them
+
+  it is a bounded heap with the worst of the kept elements on top, an element which is better
+  than the top replaces it, so n elements cost O(n log k) and only k of them are kept. only the
+  k kept elements are sorted at the end
+
+  as a Collector it works with parallel streams: every fork-join task collects its own top k
+  and the tops are merged when the tasks are joined
+*/
+public class TopK<T> {
+
+  private final int k;
+  private final Comparator<? super T> order;
+  private final PriorityQueue<T> heap;
+
+  public TopK(int k, Comparator<? super T> order) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k should be at least 1");
+    }
+    this.k = k;
+    this.order = order;
+    this.heap = new PriorityQueue<>(order.reversed());
+  }
+
+  public static <T> Collector<T, ?, List<T>> collector(int k, Comparator<? super T> order) {
+    return Collector.of(() -> new TopK<T>(k, order), TopK::add, TopK::merge, TopK::toList);
+  }
+
+  public void add(T element) {
+    if (heap.size() < k) {
+      heap.add(element);
+    } else if (order.compare(element, heap.peek()) < 0) {
+      heap.poll();
+      heap.add(element);
+    }
+  }
+
+  public TopK<T> merge(TopK<T> other) {
+    other.heap.forEach(this::add);
+    return this;
+  }
+
+  // kept elements, the best first
+  public List<T> toList() {
+    var top = new ArrayList<>(heap);
+    top.sort(order);
+    return top;
+  }
+}
@@ -0,0 +1,158 @@
+package com.epam.cryptoinvestment.cache;
+
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/*
+  results for the same range are the same for every caller until new prices are imported,
+  (for example last month stats are requested with the same range for the whole day)
+  so they are cached by the resolved range (and crypto name for crypto stats)
+
+  caches are bounded by size and time, when prices are imported only entries whose range
+  overlaps the imported range are removed (for crypto stats only the ones of imported crypto)
+
+  hits, misses, evictions and size are exposed as cache.* metrics with cache tag
+  (normalizedPrices, cryptoStats), removals after import as cache.import.invalidations
+*/
+@Component
+@Slf4j
+public class CryptoStatsCache {
+
+  private static final String NORMALIZED_PRICES = "normalizedPrices";
+  private static final String CRYPTO_STATS = "cryptoStats";
+
+  private final AsyncCache<Range, List<CryptoPrice>> normalizedPrices;
+  private final AsyncCache<CryptoRangeKey, CryptoStatsResponse> cryptoStats;
+  private final Counter normalizedPricesInvalidations;
+  private final Counter cryptoStatsInvalidations;
+
+  @Data
+  @AllArgsConstructor
+  private static class CryptoRangeKey {
+    private String crypto;
+    private Range range;
+  }
+
+  public CryptoStatsCache(MeterRegistry meterRegistry,
+                          @Value("${cache.stats.maximum-size}") long maximumSize,
+                          @Value("${cache.stats.expire-after-write-minutes}") long expireAfterWriteMinutes) {
+    this.normalizedPrices = Caffeine.newBuilder()
+                                    .maximumSize(maximumSize)
+                                    .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                                    .recordStats()
+                                    .buildAsync();
+    this.cryptoStats = Caffeine.newBuilder()
+                               .maximumSize(maximumSize)
+                               .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                               .recordStats()
+                               .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, normalizedPrices.synchronous(), NORMALIZED_PRICES);
+    CaffeineCacheMetrics.monitor(meterRegistry, cryptoStats.synchronous(), CRYPTO_STATS);
+    this.normalizedPricesInvalidations = Counter.builder("cache.import.invalidations")
+                                                .tag("cache", NORMALIZED_PRICES)
+                                                .register(meterRegistry);
+    this.cryptoStatsInvalidations = Counter.builder("cache.import.invalidations")
+                                           .tag("cache", CRYPTO_STATS)
+                                           .register(meterRegistry);
+  }
+
+  public List<CryptoPrice> getNormalizedPrices(Range range,
+                                               Function<Range, List<CryptoPrice>> loader) {
+    return get(normalizedPrices, range, key -> List.copyOf(loader.apply(key)));
+  }
+
+  public CryptoStatsResponse getCryptoStats(String crypto, Range range,
+                                            Function<Range, CryptoStatsResponse> loader) {
+    return get(cryptoStats, new CryptoRangeKey(crypto, range), key -> loader.apply(key.getRange()));
+  }
+
+  /*
+    every entry is a future which is in the cache while the value is calculated, so requests
+    for the same value wait for the same calculation. if prices are imported in the meantime
+    the future is removed with the other entries and its result is never put back to the cache
+    (failed futures are removed too)
+  */
+  public CompletableFuture<CryptoStatsResponse> getCryptoStatsAsync(
+      String crypto, Range range, Function<Range, CompletableFuture<CryptoStatsResponse>> loader) {
+    return cryptoStats.get(new CryptoRangeKey(crypto, range), (key, executor) -> loader.apply(key.getRange()));
+  }
+
+  @EventListener
+  public void onPricesImported(PricesImportedEvent event) {
+    var importedRanges = event.getImportedRanges();
+    int normalizedRemoved = removeIf(normalizedPrices, range ->
+        importedRanges.values().stream().anyMatch(imported -> overlaps(range, imported)));
+    int statsRemoved = removeIf(cryptoStats, key ->
+        importedRanges.containsKey(key.getCrypto())
+        && overlaps(key.getRange(), importedRanges.get(key.getCrypto())));
+    normalizedPricesInvalidations.increment(normalizedRemoved);
+    cryptoStatsInvalidations.increment(statsRemoved);
+    log.info("Removed {} normalized prices and {} crypto stats from cache after import",
+             normalizedRemoved, statsRemoved);
+  }
+
+  /*
+    synchronous values are calculated by the caller, the future is put to the cache before that
+    (not when the value is known, then an import during the calculation wouldn't remove it)
+  */
+  private static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+    var loading = new CompletableFuture<V>();
+    var future = cache.get(key, (k, executor) -> loading);
+    if (future != loading) {
+      return join(future);
+    }
+    try {
+      var value = loader.apply(key);
+      loading.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      loading.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  // exception of the calculation this request has waited for is thrown as it is
+  private static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  // keys of the futures which are being calculated are removed too
+  private static <K> int removeIf(AsyncCache<K, ?> cache, Predicate<K> predicate) {
+    var keys = cache.asMap().keySet().stream().filter(predicate).collect(Collectors.toList());
+    cache.synchronous().invalidateAll(keys);
+    return keys.size();
+  }
+
+  // both ranges are [start, end)
+  private static boolean overlaps(Range cached, Range imported) {
+    return cached.getStart().isBefore(imported.getEnd())
+           && imported.getStart().isBefore(cached.getEnd());
+  }
+}
@@ -0,0 +1,35 @@
+package com.epam.cryptoinvestment.config;
+
+import java.util.concurrent.Callable;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+  asynchronous requests have the default timeout (spring.mvc.async.request-timeout),
+  a handler which needs a longer one (e.g. export streamed to a slow client) puts it
+  to REQUEST_TIMEOUT_ATTRIBUTE (milliseconds) of the request and it is used
+  when the asynchronous processing of this request starts
+*/
+@Configuration
+public class AsyncRequestTimeoutConfig implements WebMvcConfigurer {
+
+  public static final String REQUEST_TIMEOUT_ATTRIBUTE = AsyncRequestTimeoutConfig.class.getName() + ".timeout";
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+      @Override
+      public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        var timeout = request.getAttribute(REQUEST_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Long && request instanceof AsyncWebRequest) {
+          ((AsyncWebRequest) request).setTimeout((Long) timeout);
+        }
+      }
+    });
+  }
+}
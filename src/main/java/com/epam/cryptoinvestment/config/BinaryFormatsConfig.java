@@ -0,0 +1,31 @@
+package com.epam.cryptoinvestment.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*
+  besides json every endpoint can answer in CBOR (Accept: application/cbor) or
+  Smile (Accept: application/x-jackson-smile), binary formats of the same data model,
+  which are smaller and faster to write than json (see ResponseFormatBenchmark)
+
+  mappers are built from spring boot's builder, so they have the same settings
+  (spring.jackson.*, modules) as the json one and the responses are the same
+*/
+@Configuration
+public class BinaryFormatsConfig {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
@@ -0,0 +1,25 @@
+package com.epam.cryptoinvestment.config;
+
+import com.epam.cryptoinvestment.ratelimit.ClientRateLimitInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+  per client rate limit (see ClientRateLimitInterceptor) for the api endpoints only,
+  actuator and docs are not limited
+*/
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rate-limit.client.enabled", havingValue = "true")
+public class ClientRateLimitConfig implements WebMvcConfigurer {
+
+  private final ClientRateLimitInterceptor clientRateLimitInterceptor;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(clientRateLimitInterceptor).addPathPatterns("/api/**");
+  }
+}
@@ -0,0 +1,66 @@
+package com.epam.cryptoinvestment.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/*
+  executor of the queries of asynchronous requests (see CryptoInvestmentImpl.getCryptoStatsForMonthAsync)
+
+  POOL - fixed number of threads with bounded queue, when the queue is full the request is
+         rejected (503) instead of waiting, the real bound is the database connection pool
+  VIRTUAL - a virtual thread for every query, it needs java 21 (the method is looked up at
+            runtime, so the code still compiles for java 11)
+  DIRECT - queries run one by one on the thread of the request, the same as synchronous handlers
+*/
+@Configuration
+public class StatsExecutorConfig {
+
+  public enum Mode {
+    POOL,
+    VIRTUAL,
+    DIRECT
+  }
+
+  @Bean
+  public Executor statsExecutor(@Value("${stats.async.executor}") Mode mode,
+                                @Value("${stats.async.threads}") int threads,
+                                @Value("${stats.async.queue-capacity}") int queueCapacity) {
+    switch (mode) {
+      case VIRTUAL:
+        return newVirtualThreadPerTaskExecutor();
+      case DIRECT:
+        return Runnable::run;
+      default:
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                      new ArrayBlockingQueue<>(queueCapacity),
+                                      new CustomizableThreadFactory("stats-"));
+    }
+  }
+
+  /*
+    spring boot creates its task executor (used by spring mvc for streamed responses) only
+    if there is no other Executor bean, so it is created here the same way
+  */
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+    return builder.build();
+  }
+
+  private static Executor newVirtualThreadPerTaskExecutor() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("stats.async.executor=VIRTUAL needs java 21 or newer", e);
+    }
+  }
+}
@@ -1,29 +1,62 @@
 package com.epam.cryptoinvestment.controller;
 
+import com.epam.cryptoinvestment.config.AsyncRequestTimeoutConfig;
+import com.epam.cryptoinvestment.exceptions.IncorrectBatchSizeException;
 import com.epam.cryptoinvestment.exceptions.TooManyRequestsException;
 import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.ExportFormat;
+import com.epam.cryptoinvestment.ratelimit.ClientRateLimitInterceptor;
+import com.epam.cryptoinvestment.requests.BatchStatsRequest;
 import com.epam.cryptoinvestment.requests.DayRequest;
 import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.requests.RollingRequest;
+import com.epam.cryptoinvestment.responses.BatchStatsResponse;
 import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
 import com.epam.cryptoinvestment.responses.NormalizedCryptosResponse;
+import com.epam.cryptoinvestment.responses.RollingNormalizedResponse;
 import com.epam.cryptoinvestment.service.CryptoInvestment;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+/*
+  only stats/crypto/{crypto} is asynchronous (stats executor, see StatsExecutorConfig): its
+  oldest, newest and min/max queries are independent, so they run at the same time.
+  export is written asynchronously by spring mvc (StreamingResponseBody).
+  the other handlers stay synchronous, there is nothing to run at the same time in them:
+  - normalized, last-month, last-six-months: one aggregate query, cached for the range
+  - max/normalized: one lookup in crypto_daily_normalized (or the aggregate query)
+  - rolling: one scan per crypto, the windows are computed in memory (cpu, not waiting)
+  - batch: items with overlapping ranges share one scan, they run one after another
+  on the executor they would still hold a database connection for the same time and a tomcat
+  thread would only be exchanged for an executor thread. StatsLoadBenchmark didn't show more
+  requests per second at saturation even for the stats (DIRECT and POOL both ~51 req/s,
+  postgres on the same single cpu host)
+*/
 @RestController
 @RequestMapping("api/v1")
 @RequiredArgsConstructor
@@ -31,6 +64,9 @@ import org.springframework.web.bind.annotation.RestController;
 public class CryptoInvestmentController {
 
   private final CryptoInvestment cryptoInvestment;
+  private final RateLimiterRegistry rateLimiterRegistry;
+  // only when rate-limit.client.enabled
+  private final ObjectProvider<ClientRateLimitInterceptor> clientRateLimitInterceptor;
 
   @Value("${request.limit.number}")
   private Integer limitNumber;
@@ -38,41 +74,103 @@ public class CryptoInvestmentController {
   @Value("${request.limit.time.minutes}")
   private Integer limitTime;
 
+  @Value("${stats.batch.max-items}")
+  private int batchMaxItems;
+
+  @Value("${stats.batch.items-per-permit}")
+  private int batchItemsPerPermit;
+
+  @Value("${export.request-timeout-minutes}")
+  private long exportTimeoutMinutes;
+
   private static final String CRYPTO_SERVICE = "cryptoService";
 
-  public NormalizedCryptosResponse normalizedResponseFallback(Exception e) {
+  // only for the rate limit, request errors (wrong range or limit) stay 400
+  public NormalizedCryptosResponse normalizedResponseFallback(RequestNotPermitted e) {
+    throw new TooManyRequestsException(limitNumber, limitTime);
+  }
+
+  // only for the rate limit, errors of the asynchronous queries (as Exception) would come here too
+  public CompletableFuture<CryptoStatsResponse> cryptoStatsResponseFallback(RequestNotPermitted e) {
+    return CompletableFuture.failedFuture(new TooManyRequestsException(limitNumber, limitTime));
+  }
+
+  // only for the rate limit, request errors (wrong day or days) stay 400
+  public CryptoPrice cryptoPriceResponseFallback(RequestNotPermitted e) {
     throw new TooManyRequestsException(limitNumber, limitTime);
   }
 
-  public CryptoStatsResponse cryptoStatsResponseFallback(Exception e) {
+  // only for the rate limit, request errors (wrong range or steps) stay 400
+  public RollingNormalizedResponse rollingResponseFallback(RequestNotPermitted e) {
     throw new TooManyRequestsException(limitNumber, limitTime);
   }
 
-  public CryptoPrice cryptoPriceResponseFallback(Exception e) {
+  // only for the rate limit, request errors (unknown crypto, wrong range) stay 400
+  public ResponseEntity<StreamingResponseBody> exportResponseFallback(RequestNotPermitted e) {
     throw new TooManyRequestsException(limitNumber, limitTime);
   }
 
   @RateLimiter(name = CRYPTO_SERVICE, fallbackMethod = "normalizedResponseFallback")
   @Operation(summary = "Get normalized prices for every crypto in descending order")
   @ApiResponse(responseCode = "200", description = "success")
-  @ApiResponse(responseCode = "400", description = "year or month incorrect")
+  @ApiResponse(responseCode = "400", description = "year or month incorrect; limit incorrect")
   @ApiResponse(responseCode = "429", description = "too many requests")
   @PostMapping("stats/normalized")
-  public NormalizedCryptosResponse getMonthStats(HttpServletRequest request, @Valid @RequestBody MonthRequest month) {
-    var monthStats = cryptoInvestment.getNormalizedPricesForMonth(month);
+  public NormalizedCryptosResponse getMonthStats(HttpServletRequest request, @Valid @RequestBody MonthRequest month,
+                                                 @Parameter(description = "only this number of cryptos "
+                                                                          + "with the highest normalized price")
+                                                 @RequestParam(value = "limit", required = false) @Min(1)
+                                                 Integer limit) {
+    var monthStats = limit == null
+                     ? cryptoInvestment.getNormalizedPricesForMonth(month)
+                     : cryptoInvestment.getNormalizedPricesForMonth(month, limit);
     return new NormalizedCryptosResponse(monthStats);
   }
+  /*
+    queries of the stats run on the stats executor, the request thread is released
+    when they are started and the response is written when all of them are done
+  */
   @RateLimiter(name = CRYPTO_SERVICE, fallbackMethod = "cryptoStatsResponseFallback")
   @Operation(summary = "Get stats for specific crypto (oldest/newest/min price/max price)")
   @ApiResponse(responseCode = "200", description = "success")
   @ApiResponse(responseCode = "400", description = "crypto not supported; year or month incorrect")
   @ApiResponse(responseCode = "429", description = "too many requests")
+  @ApiResponse(responseCode = "503", description = "too many requests in progress")
   @PostMapping("stats/crypto/{crypto}")
-  public CryptoStatsResponse getCryptoStats(HttpServletRequest request, @Parameter(required = true,
-                                           description = "crypto which we want to check stats for")
-                                           @PathVariable("crypto") String crypto,
-                                           @Valid @RequestBody MonthRequest month) {
-    return cryptoInvestment.getCryptoStatsForMonth(crypto, month);
+  public CompletableFuture<CryptoStatsResponse> getCryptoStats(HttpServletRequest request, @Parameter(required = true,
+                                                            description = "crypto which we want to check stats for")
+                                                            @PathVariable("crypto") String crypto,
+                                                            @Valid @RequestBody MonthRequest month) {
+    return cryptoInvestment.getCryptoStatsForMonthAsync(crypto, month);
+  }
+
+  /*
+    the batch uses the same rate limiter as the other endpoints, but it takes a permit for
+    every stats.batch.items-per-permit items (a batch is cheaper than the same number of
+    single requests: one request, overlapping ranges share the scan), so a grid of cryptos
+    and months fits into the limit, while bigger batches still use more of it.
+    the limit of the client is charged the same, it has already given one permit for the request.
+    it is charged only when the instance has taken the batch, a rejected batch doesn't use
+    the limit of its client
+  */
+  @Operation(summary = "Get stats for many cryptos and ranges (in months or days) in one request")
+  @ApiResponse(responseCode = "200", description = "success")
+  @ApiResponse(responseCode = "400", description = "crypto not supported; start, months or days incorrect; "
+                                                   + "too many items")
+  @ApiResponse(responseCode = "429", description = "too many requests")
+  @PostMapping("stats/batch")
+  public BatchStatsResponse getCryptoStatsBatch(HttpServletRequest request,
+                                                @Valid @RequestBody BatchStatsRequest batch) {
+    var items = batch.getItems();
+    if (items.isEmpty() || items.size() > batchMaxItems) {
+      throw new IncorrectBatchSizeException(batchMaxItems);
+    }
+    int permits = (items.size() + batchItemsPerPermit - 1) / batchItemsPerPermit;
+    if (!rateLimiterRegistry.rateLimiter(CRYPTO_SERVICE).acquirePermission(permits)) {
+      throw new TooManyRequestsException(limitNumber, limitTime);
+    }
+    clientRateLimitInterceptor.ifAvailable(clientLimit -> clientLimit.acquire(request, permits - 1));
+    return new BatchStatsResponse(cryptoInvestment.getCryptoStatsBatch(items));
   }
 
   @RateLimiter(name = CRYPTO_SERVICE, fallbackMethod = "cryptoPriceResponseFallback")
@@ -85,6 +183,21 @@ public class CryptoInvestmentController {
     return cryptoInvestment.getMaxNormalizedCrypto(day);
   }
 
+  /*
+    one request for a whole chart (for example the best crypto of every day of the year),
+    instead of a max/normalized request for every day
+  */
+  @RateLimiter(name = CRYPTO_SERVICE, fallbackMethod = "rollingResponseFallback")
+  @Operation(summary = "Get normalized prices for every crypto in every step (day, week or month) of a span")
+  @ApiResponse(responseCode = "200", description = "success")
+  @ApiResponse(responseCode = "400", description = "start, days, step or window incorrect; too many steps")
+  @ApiResponse(responseCode = "429", description = "too many requests")
+  @PostMapping("stats/normalized/rolling")
+  public RollingNormalizedResponse getRollingNormalized(HttpServletRequest request,
+                                                        @Valid @RequestBody RollingRequest rolling) {
+    return new RollingNormalizedResponse(cryptoInvestment.getRollingNormalizedPrices(rolling));
+  }
+
   /*
     making this 2 endpoints becomes very easy because we can just hardcode
     -1 for last month's stats and -6 for last 6 months' stats and use now as the start date.
@@ -112,4 +225,36 @@ public class CryptoInvestmentController {
     return new NormalizedCryptosResponse(monthStats);
   }
 
+  /*
+    prices are not collected to a list, they are written to the response while they are read
+    from the database, so any range can be exported (see CryptoInvestmentImpl.exportPrices).
+    writing a long range to a slow client takes time, so only this request gets
+    export.request-timeout-minutes instead of the default asynchronous request timeout
+  */
+  @RateLimiter(name = CRYPTO_SERVICE, fallbackMethod = "exportResponseFallback")
+  @Operation(summary = "Export prices of cryptos for a range of days as NDJSON or CSV (streamed)")
+  @ApiResponse(responseCode = "200", description = "success")
+  @ApiResponse(responseCode = "400", description = "crypto not supported; start or days incorrect")
+  @ApiResponse(responseCode = "429", description = "too many requests")
+  @GetMapping("export/prices")
+  public ResponseEntity<StreamingResponseBody> exportPrices(HttpServletRequest request,
+                                                            @Parameter(required = true, example = "BTC,ETH",
+                                                                       description = "cryptos to export")
+                                                            @RequestParam("cryptos") List<String> cryptos,
+                                                            @Parameter(required = true, example = "2022-1-1")
+                                                            @RequestParam("start") String start,
+                                                            @Parameter(required = true, example = "31",
+                                                                       description = "same as in DayRequest")
+                                                            @RequestParam("days") int days,
+                                                            @Parameter(description = "NDJSON or CSV")
+                                                            @RequestParam(value = "format", defaultValue = "NDJSON")
+                                                            ExportFormat format) {
+    var body = cryptoInvestment.exportPrices(cryptos, new DayRequest(start, days), format);
+    request.setAttribute(AsyncRequestTimeoutConfig.REQUEST_TIMEOUT_ATTRIBUTE,
+                         TimeUnit.MINUTES.toMillis(exportTimeoutMinutes));
+    return ResponseEntity.ok()
+                         .contentType(MediaType.parseMediaType(format.getMediaType()))
+                         .body(body);
+  }
+
 }
@@ -0,0 +1,289 @@
+package com.epam.cryptoinvestment.csv;
+
+import com.opencsv.CSVParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+  parser for price files in fixed timestamp,symbol,price format
+
+  it reads bytes straight from memory mapped file (or from a reusable buffer when the file
+  is not on the file system, e.g. inside a jar) and parses numbers from the bytes, so there
+  are no String objects for lines and fields, symbols are decoded only when they change.
+  lines with quotes are rare, they are parsed with opencsv the same way as before.
+  header line (first field is "timestamp") is skipped, lines without exactly 3 fields
+  or with numbers which can't be parsed are reported as invalid and skipped
+
+  one instance keeps the symbols it has seen, it is not thread safe
+*/
+public class PriceCsvParser {
+
+  private static final int MAPPED_WINDOW_SIZE = 256 * 1024 * 1024;
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  // 10^0 ... 10^22 are exact doubles
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  private static final byte[] HEADER = "timestamp".getBytes(StandardCharsets.US_ASCII);
+
+  private final Map<String, String> symbols = new HashMap<>();
+  private final CSVParser quotedLineParser = new CSVParser();
+  private byte[] lastSymbol = new byte[0];
+  private String lastSymbolString;
+  private long lineNumber;
+  private long completeLinesEnd;
+
+  public long parse(Path file, PriceRowHandler handler) throws IOException {
+    return parse(file, 0, handler);
+  }
+
+  /*
+    file is mapped in windows, only complete lines of a window are parsed, the next window
+    starts from the beginning of the first incomplete line
+
+    parsing starts from offset, it must be the beginning of a line (e.g. the end of the
+    previous import). returns the end of the last line which has line break, if the file
+    doesn't end with line break the last line is parsed, but it may be incomplete yet
+  */
+  public long parse(Path file, long offset, PriceRowHandler handler) throws IOException {
+    lineNumber = 0;
+    completeLinesEnd = offset;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = offset;
+      while (position < size) {
+        long windowSize = Math.min(MAPPED_WINDOW_SIZE, size - position);
+        var window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+        boolean lastWindow = position + windowSize == size;
+        int parsed = parseLines(window, position, (int) windowSize, lastWindow, handler);
+        if (parsed == 0 && !lastWindow) {
+          throw new IOException("Line is longer than " + MAPPED_WINDOW_SIZE + " bytes in " + file);
+        }
+        position += parsed;
+      }
+    }
+    return completeLinesEnd;
+  }
+
+  /*
+    stream is read to the same buffer again and again, incomplete line at the end of the buffer
+    is moved to its beginning before reading more. buffer grows only if one line doesn't fit
+
+    returns the number of bytes read from the stream up to the end of the last line
+    which has line break, the same as for the file
+  */
+  public long parse(InputStream input, PriceRowHandler handler) throws IOException {
+    lineNumber = 0;
+    completeLinesEnd = 0;
+    var bytes = new byte[STREAM_BUFFER_SIZE];
+    long position = 0;
+    int length = 0;
+    while (true) {
+      int read = input.read(bytes, length, bytes.length - length);
+      if (read < 0) {
+        parseLines(ByteBuffer.wrap(bytes), position, length, true, handler);
+        return completeLinesEnd;
+      }
+      length += read;
+      int parsed = parseLines(ByteBuffer.wrap(bytes), position, length, false, handler);
+      System.arraycopy(bytes, parsed, bytes, 0, length - parsed);
+      length -= parsed;
+      position += parsed;
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+    }
+  }
+
+  /*
+    parses every complete line in [0, limit) and returns where the first incomplete line starts,
+    at the end of the input the last line doesn't need line break.
+    position is where the buffer starts in the input
+  */
+  private int parseLines(ByteBuffer buffer, long position, int limit, boolean endOfInput,
+                         PriceRowHandler handler) {
+    int lineStart = 0;
+    while (lineStart < limit) {
+      int lineEnd = lineStart;
+      while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      if (lineEnd == limit && !endOfInput) {
+        return lineStart;
+      }
+      int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+      parseLine(buffer, lineStart, contentEnd, handler);
+      lineNumber++;
+      if (lineEnd < limit) {
+        completeLinesEnd = position + lineEnd + 1;
+      }
+      lineStart = lineEnd + 1;
+    }
+    return limit;
+  }
+
+  private void parseLine(ByteBuffer buffer, int start, int end, PriceRowHandler handler) {
+    int firstComma = -1;
+    int secondComma = -1;
+    for (int i = start; i < end; i++) {
+      byte b = buffer.get(i);
+      if (b == '"') {
+        parseQuotedLine(buffer, start, end, handler);
+        return;
+      }
+      if (b == ',') {
+        if (firstComma < 0) {
+          firstComma = i;
+        } else if (secondComma < 0) {
+          secondComma = i;
+        } else {
+          handler.onInvalidLine(lineNumber);
+          return;
+        }
+      }
+    }
+    if (secondComma < 0) {
+      handler.onInvalidLine(lineNumber);
+      return;
+    }
+    if (equalsBytes(buffer, start, firstComma, HEADER)) {
+      return;
+    }
+
+    long timestamp;
+    double price;
+    try {
+      timestamp = parseLong(buffer, start, firstComma);
+      price = parseDouble(buffer, secondComma + 1, end);
+    } catch (NumberFormatException e) {
+      handler.onInvalidLine(lineNumber);
+      return;
+    }
+    handler.onRow(timestamp, symbol(buffer, firstComma + 1, secondComma), price);
+  }
+
+  private void parseQuotedLine(ByteBuffer buffer, int start, int end, PriceRowHandler handler) {
+    String[] fields;
+    try {
+      fields = quotedLineParser.parseLine(decode(buffer, start, end));
+    } catch (IOException e) {
+      handler.onInvalidLine(lineNumber);
+      return;
+    }
+    if (fields.length != 3) {
+      handler.onInvalidLine(lineNumber);
+      return;
+    }
+    if (fields[0].equals("timestamp")) {
+      return;
+    }
+    try {
+      handler.onRow(Long.parseLong(fields[0]), intern(fields[1]), Double.parseDouble(fields[2]));
+    } catch (NumberFormatException e) {
+      handler.onInvalidLine(lineNumber);
+    }
+  }
+
+  // the same symbol usually repeats on every line, so it is compared with the previous one
+  private String symbol(ByteBuffer buffer, int start, int end) {
+    if (!equalsBytes(buffer, start, end, lastSymbol)) {
+      lastSymbol = copy(buffer, start, end);
+      lastSymbolString = intern(new String(lastSymbol, StandardCharsets.UTF_8));
+    }
+    return lastSymbolString;
+  }
+
+  private String intern(String symbol) {
+    return symbols.computeIfAbsent(symbol, s -> s);
+  }
+
+  private static boolean equalsBytes(ByteBuffer buffer, int start, int end, byte[] bytes) {
+    if (end - start != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long parseLong(ByteBuffer buffer, int start, int end) {
+    boolean negative = start < end && buffer.get(start) == '-';
+    int i = negative ? start + 1 : start;
+    if (i == end) {
+      throw new NumberFormatException();
+    }
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException();
+      }
+      if (value > (Long.MAX_VALUE - digit) / 10) {
+        throw new NumberFormatException();
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /*
+    plain decimal numbers (like 46813.21) whose digits fit in 2^53 are exactly
+    digits / 10^fraction, one division of two exact doubles is correctly rounded, so the
+    result is the same as Double.parseDouble. anything else (exponent, too many digits)
+    is parsed with Double.parseDouble
+  */
+  private static double parseDouble(ByteBuffer buffer, int start, int end) {
+    boolean negative = start < end && buffer.get(start) == '-';
+    int i = negative || (start < end && buffer.get(start) == '+') ? start + 1 : start;
+    long mantissa = 0;
+    int fractionDigits = -1;
+    boolean hasDigits = false;
+    for (; i < end; i++) {
+      byte b = buffer.get(i);
+      if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+        continue;
+      }
+      int digit = b - '0';
+      if (digit < 0 || digit > 9 || mantissa >= MAX_EXACT_MANTISSA / 10) {
+        return Double.parseDouble(decode(buffer, start, end));
+      }
+      mantissa = mantissa * 10 + digit;
+      hasDigits = true;
+      if (fractionDigits >= 0) {
+        fractionDigits++;
+      }
+    }
+    if (!hasDigits || fractionDigits >= POWERS_OF_TEN.length) {
+      return Double.parseDouble(decode(buffer, start, end));
+    }
+    double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+    return negative ? -value : value;
+  }
+
+  private static String decode(ByteBuffer buffer, int start, int end) {
+    return new String(copy(buffer, start, end), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] copy(ByteBuffer buffer, int start, int end) {
+    var bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return bytes;
+  }
+}
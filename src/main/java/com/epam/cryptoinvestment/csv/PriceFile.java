@@ -0,0 +1,110 @@
+package com.epam.cryptoinvestment.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/*
+  price file from the prices directory on the classpath, usually it is on the file system
+  and it is read through FileChannel (size, memory mapping), inside a jar it can only be read
+  as a stream from the beginning
+
+  checksum of the first n bytes is used to find out if the part of the file which was
+  already imported is still the same (then only the rest of the file has to be imported)
+*/
+public class PriceFile {
+
+  private static final int CHECKSUM_BUFFER_SIZE = 1024 * 1024;
+
+  private final URL url;
+  private final Path path;
+
+  public PriceFile(URL url) throws IOException {
+    this.url = url;
+    try {
+      this.path = "file".equals(url.getProtocol()) ? Paths.get(url.toURI()) : null;
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  public long size() throws IOException {
+    if (path != null) {
+      try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        return channel.size();
+      }
+    }
+    return url.openConnection().getContentLengthLong();
+  }
+
+  /*
+    CRC32C of the first length bytes, or -1 if the file is shorter than that
+  */
+  public long checksum(long length) throws IOException {
+    var crc = new CRC32C();
+    if (path != null) {
+      try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        var buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+        long remaining = length;
+        while (remaining > 0) {
+          buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+          int read = channel.read(buffer);
+          if (read < 0) {
+            return -1;
+          }
+          buffer.flip();
+          crc.update(buffer);
+          remaining -= read;
+        }
+      }
+      return crc.getValue();
+    }
+    try (var input = url.openStream()) {
+      var buffer = new byte[CHECKSUM_BUFFER_SIZE];
+      long remaining = length;
+      while (remaining > 0) {
+        int read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+        if (read < 0) {
+          return -1;
+        }
+        crc.update(buffer, 0, read);
+        remaining -= read;
+      }
+    }
+    return crc.getValue();
+  }
+
+  /*
+    parses the file from offset, returns the end of the last complete line (see PriceCsvParser)
+  */
+  public long parse(PriceCsvParser parser, long offset, PriceRowHandler handler) throws IOException {
+    if (path != null) {
+      return parser.parse(path, offset, handler);
+    }
+    try (var input = url.openStream()) {
+      skip(input, offset);
+      return offset + parser.parse(input, handler);
+    }
+  }
+
+  private static void skip(InputStream input, long bytes) throws IOException {
+    long remaining = bytes;
+    while (remaining > 0) {
+      long skipped = input.skip(remaining);
+      if (skipped <= 0) {
+        if (input.read() < 0) {
+          throw new IOException("File is shorter than " + bytes + " bytes");
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.epam.cryptoinvestment.csv;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+  months (UTC, the first day of the month) of the rows in a price file, it is used to create
+  partitions of cryptos table before the rows are inserted (see PricesImporterImpl)
+  rows of the same month usually come one after another, so only a row from another month
+  than the previous one is converted to a date
+*/
+public class PriceMonths implements PriceRowHandler {
+
+  private final Set<LocalDate> months = new TreeSet<>();
+  private long monthStart = Long.MAX_VALUE;
+  private long monthEnd = Long.MIN_VALUE;
+
+  @Override
+  public void onRow(long timestamp, String symbol, double price) {
+    if (timestamp >= monthStart && timestamp < monthEnd) {
+      return;
+    }
+    var month = Instant.ofEpochMilli(timestamp).atOffset(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    months.add(month);
+    monthStart = month.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    monthEnd = month.plusMonths(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+  }
+
+  // invalid lines are reported when the file is imported
+  @Override
+  public void onInvalidLine(long lineNumber) {
+  }
+
+  public Set<LocalDate> getMonths() {
+    return months;
+  }
+}
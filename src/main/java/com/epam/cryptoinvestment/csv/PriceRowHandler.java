@@ -0,0 +1,14 @@
+package com.epam.cryptoinvestment.csv;
+
+/*
+  receives rows parsed by PriceCsvParser, symbol strings are interned by the parser,
+  so the same symbol is always the same String instance
+  line numbers start from 0, the same as in the rest of the importer
+*/
+public interface PriceRowHandler {
+
+  void onRow(long timestamp, String symbol, double price);
+
+  void onInvalidLine(long lineNumber);
+
+}
@@ -1,7 +1,11 @@
 package com.epam.cryptoinvestment.entities;
 
+import com.epam.cryptoinvestment.model.ImportStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.ZonedDateTime;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -23,11 +27,27 @@ import lombok.Setter;
 @AllArgsConstructor
 @Schema(description = "  this is an entity class for imported files "
                       + "imported file means that it's data has already been imported to "
-                      + "database it consists of 2 fields (id auto generated and name is the "
-                      + "name of the file)")
+                      + "database it consists of id (auto generated), name of the file and "
+                      + "the progress of the import (status, number of imported rows, error "
+                      + "message if import failed, when it was started and finished) and "
+                      + "which part of the file is imported (size of the file, end of the "
+                      + "last imported line and checksum of the file up to it)")
 public class ImportedFileEntity {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
   private String name;
+  @Enumerated(EnumType.STRING)
+  private ImportStatus status;
+  private long rowsImported;
+  private String error;
+  private ZonedDateTime startedAt;
+  private ZonedDateTime finishedAt;
+  private long size;
+  private long importedOffset;
+  private Long checksum;
+
+  public ImportedFileEntity(String name) {
+    this.name = name;
+  }
 }
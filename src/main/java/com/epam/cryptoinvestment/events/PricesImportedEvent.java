@@ -0,0 +1,20 @@
+package com.epam.cryptoinvestment.events;
+
+import com.epam.cryptoinvestment.model.Range;
+import java.util.Map;
+import lombok.Getter;
+
+/*
+  published after new prices were imported to the database, so everything which keeps
+  the data in memory (or computed from it) knows what has to be refreshed.
+  it contains the range of imported timestamps for every crypto which was touched
+*/
+@Getter
+public class PricesImportedEvent {
+
+  private final Map<String, Range> importedRanges;
+
+  public PricesImportedEvent(Map<String, Range> importedRanges) {
+    this.importedRanges = Map.copyOf(importedRanges);
+  }
+}
@@ -2,6 +2,8 @@ package com.epam.cryptoinvestment.exceptions;
 
 import java.time.DateTimeException;
 import java.time.ZonedDateTime;
+import java.util.concurrent.RejectedExecutionException;
+import javax.validation.ConstraintViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -74,6 +76,18 @@ public class GlobalExceptionHandler {
     return toResponse(apiError, ex, new HttpHeaders(), request);
   }
 
+  // constraints of request parameters (the controller is @Validated)
+  @ExceptionHandler(value = {ConstraintViolationException.class})
+  protected ResponseEntity<Object> handleConstraintViolationException(ConstraintViolationException ex,
+                                                                      WebRequest request) {
+    var apiError =  new ApiError(ZonedDateTime.now(),
+                        false,
+                        400,
+                        "Bad request",
+                        ex.getMessage());
+    return toResponse(apiError, ex, new HttpHeaders(), request);
+  }
+
   @ExceptionHandler(value = {IncorrectDaysOrMonthsValueException.class})
   protected ResponseEntity<Object> handleIncorrectDaysValueException(IncorrectDaysOrMonthsValueException ex, WebRequest request) {
     var apiError =  new ApiError(ZonedDateTime.now(),
@@ -84,6 +98,39 @@ public class GlobalExceptionHandler {
     return toResponse(apiError, ex, new HttpHeaders(), request);
   }
 
+  @ExceptionHandler(value = {IncorrectBatchSizeException.class})
+  protected ResponseEntity<Object> handleIncorrectBatchSizeException(IncorrectBatchSizeException ex, WebRequest request) {
+    var apiError =  new ApiError(ZonedDateTime.now(),
+                        false,
+                        400,
+                        "Bad request",
+                        ex.getMessage());
+    return toResponse(apiError, ex, new HttpHeaders(), request);
+  }
+
+  @ExceptionHandler(value = {IncorrectRollingStepsException.class})
+  protected ResponseEntity<Object> handleIncorrectRollingStepsException(IncorrectRollingStepsException ex,
+                                                                        WebRequest request) {
+    var apiError =  new ApiError(ZonedDateTime.now(),
+                        false,
+                        400,
+                        "Bad request",
+                        ex.getMessage());
+    return toResponse(apiError, ex, new HttpHeaders(), request);
+  }
+
+  // stats executor queue is full (see StatsExecutorConfig)
+  @ExceptionHandler(value = {RejectedExecutionException.class})
+  protected ResponseEntity<Object> handleRejectedExecutionException(RejectedExecutionException ex,
+                                                                    WebRequest request) {
+    var apiError = new ApiError(ZonedDateTime.now(),
+                        false,
+                        503,
+                        "Service unavailable",
+                        "too many requests in progress, try again later");
+    return toResponse(apiError, ex, new HttpHeaders(), request);
+  }
+
   @ExceptionHandler(value = {TooManyRequestsException.class})
   protected ResponseEntity<Object> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
     var apiError = new ApiError(ZonedDateTime.now(),
@@ -0,0 +1,9 @@
+package com.epam.cryptoinvestment.exceptions;
+
+public class IncorrectBatchSizeException extends RuntimeException {
+
+  public IncorrectBatchSizeException(int maxItems) {
+    super(String.format("The batch should have from 1 to %s items", maxItems));
+  }
+
+}
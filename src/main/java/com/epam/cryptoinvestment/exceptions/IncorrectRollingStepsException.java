@@ -0,0 +1,9 @@
+package com.epam.cryptoinvestment.exceptions;
+
+public class IncorrectRollingStepsException extends RuntimeException {
+
+  public IncorrectRollingStepsException(int maxSteps) {
+    super(String.format("The span should have from 1 to %s steps", maxSteps));
+  }
+
+}
@@ -0,0 +1,33 @@
+package com.epam.cryptoinvestment.ingest;
+
+import com.epam.cryptoinvestment.ingest.ImportProgress.State;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/*
+  "import" health, part of the readiness group (see management.endpoint.health.group.readiness),
+  WARMING (503) while the startup import runs, UP when it is over
+*/
+@Component
+@RequiredArgsConstructor
+public class ImportHealthIndicator implements HealthIndicator {
+
+  public static final Status WARMING = new Status("WARMING", "startup import of prices is running");
+
+  private final ImportProgress importProgress;
+
+  @Override
+  public Health health() {
+    var progress = importProgress.snapshot();
+    var health = progress.getState() == State.READY ? Health.up() : Health.status(WARMING);
+    return health.withDetail("state", progress.getState())
+                 .withDetail("files", progress.getFiles())
+                 .withDetail("filesImported", progress.getFilesImported())
+                 .withDetail("filesSkipped", progress.getFilesSkipped())
+                 .withDetail("filesFailed", progress.getFilesFailed())
+                 .build();
+  }
+}
@@ -0,0 +1,93 @@
+package com.epam.cryptoinvestment.ingest;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/*
+  progress of the import which is running (or the last one), updated by PricesImporter
+  while files are imported in parallel, so counters are atomic
+
+  state is WARMING until the startup import has finished, the application already serves
+  requests from the data which is committed, but it is not ready yet (see ImportHealthIndicator).
+  later imports (from the watched directory) only update the counters
+*/
+@Component
+public class ImportProgress {
+
+  public enum State {
+    WARMING, READY
+  }
+
+  @Value
+  public static class Snapshot {
+    State state;
+    boolean running;
+    int files;
+    int filesImported;
+    int filesSkipped;
+    int filesFailed;
+    long rowsImported;
+    ZonedDateTime startedAt;
+    ZonedDateTime finishedAt;
+  }
+
+  private volatile State state = State.WARMING;
+  private volatile boolean running;
+  private volatile int files;
+  private final AtomicInteger filesImported = new AtomicInteger();
+  private final AtomicInteger filesSkipped = new AtomicInteger();
+  private final AtomicInteger filesFailed = new AtomicInteger();
+  private final AtomicLong rowsImported = new AtomicLong();
+  private volatile ZonedDateTime startedAt;
+  private volatile ZonedDateTime finishedAt;
+
+  public State getState() {
+    return state;
+  }
+
+  public void started(int files) {
+    this.files = files;
+    filesImported.set(0);
+    filesSkipped.set(0);
+    filesFailed.set(0);
+    rowsImported.set(0);
+    startedAt = ZonedDateTime.now(ZoneOffset.UTC);
+    finishedAt = null;
+    running = true;
+  }
+
+  public void fileImported(long rows) {
+    filesImported.incrementAndGet();
+    rowsImported.addAndGet(rows);
+  }
+
+  public void fileSkipped() {
+    filesSkipped.incrementAndGet();
+  }
+
+  public void fileFailed() {
+    filesFailed.incrementAndGet();
+  }
+
+  public void finished() {
+    finishedAt = ZonedDateTime.now(ZoneOffset.UTC);
+    running = false;
+  }
+
+  /*
+    called once the startup import is over, even if it failed,
+    the data which is in the database can still be served
+  */
+  public void ready() {
+    state = State.READY;
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(state, running, files, filesImported.get(), filesSkipped.get(),
+                        filesFailed.get(), rowsImported.get(), startedAt, finishedAt);
+  }
+}
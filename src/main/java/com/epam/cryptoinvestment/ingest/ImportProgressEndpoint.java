@@ -0,0 +1,22 @@
+package com.epam.cryptoinvestment.ingest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/*
+  /actuator/import, progress of the running (or the last) import
+*/
+@Component
+@Endpoint(id = "import")
+@RequiredArgsConstructor
+public class ImportProgressEndpoint {
+
+  private final ImportProgress importProgress;
+
+  @ReadOperation
+  public ImportProgress.Snapshot progress() {
+    return importProgress.snapshot();
+  }
+}
@@ -0,0 +1,186 @@
+package com.epam.cryptoinvestment.ingest;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.epam.cryptoinvestment.service.PricesImporter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/*
+  imports csv files which are copied to prices.watch.directory while the application is running,
+  so new prices don't need a new build and redeploy (prices directory on the classpath is still
+  imported on startup). it is disabled when the directory is not set
+
+  a file is usually not written at once, so every created or modified file waits until its size
+  and modification time haven't changed for prices.watch.debounce-millis, only then it is imported
+  (through PricesImporter, like any other file, so rollups are refreshed and PricesImportedEvent
+  is published for caches). if it is still being written after that, nothing is lost: the last
+  line without line break is read again and appended rows are imported from where the last import
+  stopped. files which are in the directory when the application starts are imported too
+
+  prices.ingest.queue is the number of files waiting to be imported, prices.ingest.lag is the time
+  from the first change of the file we have seen until its import has finished
+*/
+@Component
+@Slf4j
+public class PricesDirectoryWatcher {
+
+  private final PricesImporter pricesImporter;
+  private final String directory;
+  private final long debounceMillis;
+  private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+  private final Timer ingestLag;
+  private WatchService watchService;
+  private Thread thread;
+
+  @AllArgsConstructor
+  private static class PendingFile {
+    private final long firstSeen;
+    private long lastChanged;
+    private long size;
+    private long lastModified;
+  }
+
+  public PricesDirectoryWatcher(PricesImporter pricesImporter, MeterRegistry meterRegistry,
+                                @Value("${prices.watch.directory}") String directory,
+                                @Value("${prices.watch.debounce-millis}") long debounceMillis) {
+    this.pricesImporter = pricesImporter;
+    this.directory = directory;
+    this.debounceMillis = debounceMillis;
+    Gauge.builder("prices.ingest.queue", pending, Map::size)
+         .description("files waiting to be imported from the watched directory")
+         .register(meterRegistry);
+    this.ingestLag = Timer.builder("prices.ingest.lag")
+                          .description("time from the file change until it is imported")
+                          .register(meterRegistry);
+  }
+
+  /*
+    starts after the startup import, or while it is still running in the background,
+    then the first import from the directory waits until it is finished
+  */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() throws IOException {
+    if (directory == null || directory.isBlank()) {
+      return;
+    }
+    var path = Files.createDirectories(Paths.get(directory));
+    watchService = path.getFileSystem().newWatchService();
+    path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    addExistingFiles(path);
+    thread = new Thread(() -> watch(path), "prices-directory-watcher");
+    thread.setDaemon(true);
+    thread.start();
+    log.info("Watching {} for new price files", path.toAbsolutePath());
+  }
+
+  @PreDestroy
+  public void stop() throws IOException, InterruptedException {
+    if (thread == null) {
+      return;
+    }
+    watchService.close();
+    thread.interrupt();
+    thread.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  private void watch(Path path) {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        var key = watchService.poll(pending.isEmpty() ? Long.MAX_VALUE : debounceMillis,
+                                    TimeUnit.MILLISECONDS);
+        if (key != null) {
+          for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+              // some events were lost, every file is checked again
+              addExistingFiles(path);
+            } else {
+              changed(path.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+        }
+        importSettledFiles();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        log.error("Error while importing files from {}", path, e);
+      }
+    }
+  }
+
+  private void addExistingFiles(Path path) throws IOException {
+    try (var files = Files.list(path)) {
+      files.forEach(this::changed);
+    }
+  }
+
+  private void changed(Path file) {
+    if (!file.getFileName().toString().endsWith(".csv") || !Files.isRegularFile(file)) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    pending.computeIfAbsent(file, f -> new PendingFile(now, now, -1, -1)).lastChanged = now;
+  }
+
+  /*
+    files which haven't changed for debounce time are imported together,
+    a file which has changed since the last check waits again
+  */
+  private void importSettledFiles() throws IOException {
+    long now = System.currentTimeMillis();
+    List<Path> settled = new ArrayList<>();
+    for (var entry : pending.entrySet()) {
+      var file = entry.getKey();
+      var pendingFile = entry.getValue();
+      if (!Files.exists(file)) {
+        pending.remove(file);
+        continue;
+      }
+      long size = Files.size(file);
+      long lastModified = Files.getLastModifiedTime(file).toMillis();
+      if (size != pendingFile.size || lastModified != pendingFile.lastModified) {
+        pendingFile.size = size;
+        pendingFile.lastModified = lastModified;
+        pendingFile.lastChanged = now;
+      } else if (now - pendingFile.lastChanged >= debounceMillis) {
+        settled.add(file);
+      }
+    }
+    if (settled.isEmpty()) {
+      return;
+    }
+
+    log.info("Importing {} from {}", settled.stream().map(Path::getFileName).collect(Collectors.toList()),
+             directory);
+    pricesImporter.importFiles(settled);
+    long finished = System.currentTimeMillis();
+    for (var file : settled) {
+      var pendingFile = pending.remove(file);
+      ingestLag.record(Duration.ofMillis(finished - pendingFile.firstSeen));
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.epam.cryptoinvestment.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/*
+  timers of the stages of the requests (stats.stage, tags stage, endpoint and crypto when
+  it is one crypto) and meters of the csv import (prices.import.*), so a slow request can be
+  split into date parsing, queries, sorting and the rest (json is http.server.requests minus
+  the stages). queries of every repository method are spring.data.repository.invocations
+
+  endpoint is the pattern of the request mapping (e.g. api/v1/stats/normalized), so there are
+  as many values as endpoints, stages which don't run on the request thread (asynchronous
+  queries, import) have endpoint none. timers publish percentile histograms
+
+  with metrics.stages.enabled=false nothing is measured, the code of the stage is just called
+*/
+@Component
+public class StageMetrics {
+
+  private static final String NONE = "none";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+
+  public StageMetrics(MeterRegistry meterRegistry, @Value("${metrics.stages.enabled}") boolean enabled) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+  }
+
+  public <T> T time(String stage, Supplier<T> code) {
+    return time(stage, NONE, code);
+  }
+
+  /*
+    crypto comes from the request, so it is a tag only if the stage is done without an error
+    (unknown crypto would be a new tag value otherwise)
+  */
+  public <T> T time(String stage, String crypto, Supplier<T> code) {
+    if (!enabled) {
+      return code.get();
+    }
+    long startedAt = System.nanoTime();
+    var endpoint = endpoint();
+    boolean done = false;
+    try {
+      var result = code.get();
+      done = true;
+      return result;
+    } finally {
+      stageTimer(stage, endpoint, done ? crypto : NONE)
+          .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // the same for a stage which is done when the future is completed
+  public <T> CompletableFuture<T> timeAsync(String stage, String crypto, Supplier<CompletableFuture<T>> code) {
+    if (!enabled) {
+      return code.get();
+    }
+    long startedAt = System.nanoTime();
+    var endpoint = endpoint();
+    return code.get().whenComplete((result, e) -> stageTimer(stage, endpoint, e == null ? crypto : NONE)
+        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+  }
+
+  public void time(String stage, Runnable code) {
+    time(stage, NONE, () -> {
+      code.run();
+      return null;
+    });
+  }
+
+  /*
+    one imported file: its duration, imported and rejected (invalid) rows
+    and the speed of the import in rows per second
+  */
+  public void fileImported(long nanos, long rows, long rejectedRows) {
+    if (!enabled) {
+      return;
+    }
+    Timer.builder("prices.import.file")
+         .description("import of one csv file")
+         .publishPercentileHistogram()
+         .register(meterRegistry)
+         .record(nanos, TimeUnit.NANOSECONDS);
+    Counter.builder("prices.import.rows")
+           .description("imported rows")
+           .register(meterRegistry)
+           .increment(rows);
+    Counter.builder("prices.import.rows.rejected")
+           .description("invalid rows which were skipped")
+           .register(meterRegistry)
+           .increment(rejectedRows);
+    DistributionSummary.builder("prices.import.throughput")
+                       .description("imported rows per second of one file")
+                       .baseUnit("rows/s")
+                       .register(meterRegistry)
+                       .record(rows / (Math.max(nanos, 1) / 1_000_000_000.0));
+  }
+
+  private Timer stageTimer(String stage, String endpoint, String crypto) {
+    return Timer.builder("stats.stage")
+                .description("one stage of a stats request")
+                .tags(Tags.of("stage", stage, "endpoint", endpoint, "crypto", crypto))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+  }
+
+  private static String endpoint() {
+    var attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return NONE;
+    }
+    var pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                                          RequestAttributes.SCOPE_REQUEST);
+    return pattern == null ? NONE : pattern.toString();
+  }
+}
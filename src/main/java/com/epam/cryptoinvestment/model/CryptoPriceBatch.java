@@ -0,0 +1,56 @@
+package com.epam.cryptoinvestment.model;
+
+/*
+  buffer of parsed csv rows waiting to be inserted into cryptos table
+  values are kept in primitive arrays (one slot per row) instead of one object per row,
+  so streaming millions of rows through the importer doesn't create garbage for every line
+  the buffer is reused, after it is flushed to the database we just clear it
+*/
+public class CryptoPriceBatch {
+
+  private final long[] timestamps;
+  private final long[] cryptoNameIds;
+  private final double[] prices;
+  private int size;
+
+  public CryptoPriceBatch(int capacity) {
+    this.timestamps = new long[capacity];
+    this.cryptoNameIds = new long[capacity];
+    this.prices = new double[capacity];
+  }
+
+  public void add(long timestamp, long cryptoNameId, double price) {
+    timestamps[size] = timestamp;
+    cryptoNameIds[size] = cryptoNameId;
+    prices[size] = price;
+    size++;
+  }
+
+  public boolean isFull() {
+    return size == timestamps.length;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public long getTimestamp(int i) {
+    return timestamps[i];
+  }
+
+  public long getCryptoNameId(int i) {
+    return cryptoNameIds[i];
+  }
+
+  public double getPrice(int i) {
+    return prices[i];
+  }
+}
@@ -0,0 +1,19 @@
+package com.epam.cryptoinvestment.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Used to represent the price of crypto at some moment, it is read with "
+                      + "constructor projection, so it is not a managed entity")
+public class CryptoPricePoint {
+  @Schema(example = "2022-01-01T04:00:00Z")
+  private ZonedDateTime timestamp;
+  @Schema(example = "46813.21")
+  private double price;
+}
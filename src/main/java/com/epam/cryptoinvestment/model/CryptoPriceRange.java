@@ -0,0 +1,19 @@
+package com.epam.cryptoinvestment.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Used to represent the min and max price of crypto in some range of time")
+public class CryptoPriceRange {
+  @Schema(example = "BTC")
+  private String name;
+  @Schema(example = "1.5")
+  private double min;
+  @Schema(example = "3")
+  private double max;
+}
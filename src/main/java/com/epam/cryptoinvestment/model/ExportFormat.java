@@ -0,0 +1,17 @@
+package com.epam.cryptoinvestment.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/*
+  formats of exported prices, both of them are written row by row:
+  NDJSON is one json object per line, CSV has the same columns as the imported files
+*/
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+  NDJSON("application/x-ndjson"),
+  CSV("text/csv");
+
+  private final String mediaType;
+}
@@ -0,0 +1,11 @@
+package com.epam.cryptoinvestment.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Represents the state of importing one csv file, only IMPORTED files "
+                      + "are skipped on the next import, the rest of them are imported again")
+public enum ImportStatus {
+  IN_PROGRESS,
+  IMPORTED,
+  FAILED
+}
@@ -0,0 +1,62 @@
+package com.epam.cryptoinvestment.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+  summary of imported prices, how many rows were imported and for every crypto
+  the range of timestamps which were touched by the import (the first and the last one)
+  it is filled row by row while importing, so the bounds are kept in primitive arrays
+*/
+public class ImportedPrices {
+
+  private final Map<String, long[]> bounds = new HashMap<>();
+  private String lastCrypto;
+  private long[] lastBounds;
+  private long rows;
+
+  public void add(String crypto, long timestamp) {
+    // rows of the same crypto usually come one after another, so we don't have to look it up
+    if (!crypto.equals(lastCrypto)) {
+      lastBounds = bounds.computeIfAbsent(crypto,
+                                          c -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE});
+      lastCrypto = crypto;
+    }
+    lastBounds[0] = Math.min(lastBounds[0], timestamp);
+    lastBounds[1] = Math.max(lastBounds[1], timestamp);
+    rows++;
+  }
+
+  public void addAll(ImportedPrices other) {
+    other.bounds.forEach((crypto, otherBounds) -> {
+      var cryptoBounds = bounds.computeIfAbsent(crypto,
+                                                c -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE});
+      cryptoBounds[0] = Math.min(cryptoBounds[0], otherBounds[0]);
+      cryptoBounds[1] = Math.max(cryptoBounds[1], otherBounds[1]);
+    });
+    rows += other.rows;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public boolean isEmpty() {
+    return rows == 0;
+  }
+
+  /*
+    returns imported range for every crypto, end of the range is exclusive
+    (same as in the queries) so it is the last imported timestamp plus 1 millisecond
+  */
+  public Map<String, Range> getRanges() {
+    var ranges = new HashMap<String, Range>();
+    bounds.forEach((crypto, cryptoBounds) -> ranges.put(crypto, new Range(
+        ZonedDateTime.ofInstant(Instant.ofEpochMilli(cryptoBounds[0]), ZoneOffset.UTC),
+        ZonedDateTime.ofInstant(Instant.ofEpochMilli(cryptoBounds[1] + 1), ZoneOffset.UTC))));
+    return ranges;
+  }
+}
@@ -0,0 +1,18 @@
+package com.epam.cryptoinvestment.model;
+
+import java.time.temporal.ChronoUnit;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/*
+  step of the rolling series, every step is one window (one point of the chart)
+*/
+@Getter
+@RequiredArgsConstructor
+public enum RollingStep {
+  DAY(ChronoUnit.DAYS),
+  WEEK(ChronoUnit.WEEKS),
+  MONTH(ChronoUnit.MONTHS);
+
+  private final ChronoUnit unit;
+}
@@ -0,0 +1,24 @@
+package com.epam.cryptoinvestment.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Normalized prices of every crypto in one window of the rolling series, "
+                      + "in descending order (cryptos without prices in the window are left out)")
+public class RollingWindow {
+  @Schema(example = "2022-1-1T00:00:00Z")
+  private ZonedDateTime start;
+  @Schema(example = "2022-1-2T00:00:00Z")
+  private ZonedDateTime end;
+  @Schema(example = "[]")
+  @JsonProperty("normalized_prices")
+  private List<CryptoPrice> normalizedPrices;
+}
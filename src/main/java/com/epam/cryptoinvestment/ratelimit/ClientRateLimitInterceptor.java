@@ -0,0 +1,92 @@
+package com.epam.cryptoinvestment.ratelimit;
+
+import com.epam.cryptoinvestment.exceptions.TooManyRequestsException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/*
+  every api request takes a permit of its client before it gets to the controller, client is
+  the api key (header rate-limit.client.api-key-header) if it is one of rate-limit.client.api-keys,
+  otherwise the ip address, so one client can't use the limit of the others. unknown keys
+  don't get buckets of their own, a client can't get a new limit by sending a new key.
+  the api key is kept only as a hash, because buckets may be stored in the database
+
+  the global rate limiter of the controller stays, it limits the load of the whole instance.
+  a request which costs more than one permit (the batch) takes the rest of them from the
+  same client in the controller, when its weight is known (see acquire)
+*/
+@Component
+@ConditionalOnProperty(name = "rate-limit.client.enabled", havingValue = "true")
+public class ClientRateLimitInterceptor implements HandlerInterceptor {
+
+  private final RateLimitBackend rateLimitBackend;
+  private final String apiKeyHeader;
+  private final Set<String> apiKeyHashes;
+  private final int limitNumber;
+  private final int limitTime;
+
+  public ClientRateLimitInterceptor(RateLimitBackend rateLimitBackend,
+                                    @Value("${rate-limit.client.api-key-header}") String apiKeyHeader,
+                                    @Value("${rate-limit.client.api-keys}") List<String> apiKeys,
+                                    @Value("${request.limit.number}") int limitNumber,
+                                    @Value("${request.limit.time.minutes}") int limitTime) {
+    this.rateLimitBackend = rateLimitBackend;
+    this.apiKeyHeader = apiKeyHeader;
+    this.apiKeyHashes = apiKeys.stream()
+                               .filter(apiKey -> !apiKey.isBlank())
+                               .map(apiKey -> hash(apiKey.strip()))
+                               .collect(Collectors.toUnmodifiableSet());
+    this.limitNumber = limitNumber;
+    this.limitTime = limitTime;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // async dispatch (streamed export) is the same request, the permit is already taken
+    if (request.getDispatcherType() == DispatcherType.ASYNC) {
+      return true;
+    }
+    acquire(request, 1);
+    return true;
+  }
+
+  // takes more permits of the client of the request, throws if the client doesn't have them
+  public void acquire(HttpServletRequest request, int permits) {
+    if (permits > 0 && !rateLimitBackend.tryAcquire(client(request), permits)) {
+      throw new TooManyRequestsException(limitNumber, limitTime);
+    }
+  }
+
+  private String client(HttpServletRequest request) {
+    var apiKey = request.getHeader(apiKeyHeader);
+    if (apiKey != null && !apiKey.isEmpty()) {
+      var apiKeyHash = hash(apiKey);
+      if (apiKeyHashes.contains(apiKeyHash)) {
+        return "key:" + apiKeyHash;
+      }
+    }
+    return "ip:" + request.getRemoteAddr();
+  }
+
+  private static String hash(String apiKey) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      // every java platform has SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.epam.cryptoinvestment.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+  the same token buckets as LocalRateLimitBackend, but they are rows of client_rate_limits,
+  so all instances with the same database share the limits of every client. a permit is one
+  upsert: the row is locked by the database while it is updated and it is only updated when
+  the client has the permits (0 rows changed otherwise). time is taken from the database clock,
+  so clocks of the instances don't matter
+
+  every instance removes rows of idle clients once per period
+*/
+@Component
+@ConditionalOnProperty(name = "rate-limit.client.backend", havingValue = "jdbc")
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+  private static final String NOW_MICROS = "(EXTRACT(EPOCH FROM clock_timestamp()) * 1000000)::BIGINT";
+
+  private static final String ACQUIRE =
+        "INSERT INTO client_rate_limits AS bucket (client, full_at) VALUES (?, " + NOW_MICROS + " + ?) "
+      + "ON CONFLICT (client) DO UPDATE SET full_at = GREATEST(bucket.full_at + ?, EXCLUDED.full_at) "
+      + "WHERE GREATEST(bucket.full_at + ?, EXCLUDED.full_at) - EXCLUDED.full_at <= ?";
+
+  private static final String DELETE_IDLE = "DELETE FROM client_rate_limits WHERE full_at <= " + NOW_MICROS;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final long periodMicros;
+  private final long microsPerPermit;
+  private final AtomicLong nextEviction;
+
+  @Autowired
+  public JdbcRateLimitBackend(JdbcTemplate jdbcTemplate,
+                              @Value("${request.limit.number}") int limit,
+                              @Value("${request.limit.time.minutes}") int minutes) {
+    this(jdbcTemplate, limit, Duration.ofMinutes(minutes));
+  }
+
+  public JdbcRateLimitBackend(JdbcTemplate jdbcTemplate, int limit, Duration period) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.periodMicros = TimeUnit.NANOSECONDS.toMicros(period.toNanos());
+    this.microsPerPermit = periodMicros / limit;
+    this.nextEviction = new AtomicLong(System.nanoTime() + period.toNanos());
+  }
+
+  @Override
+  public boolean tryAcquire(String client, int permits) {
+    long cost = permits * microsPerPermit;
+    if (cost > periodMicros) {
+      return false;
+    }
+    evictIdle();
+    // EXCLUDED.full_at is now + cost, so the new full_at can be at most period - cost after it
+    return jdbcTemplate.update(ACQUIRE, client, cost, cost, cost, periodMicros - cost) == 1;
+  }
+
+  private void evictIdle() {
+    long now = System.nanoTime();
+    long next = nextEviction.get();
+    if (now - next >= 0
+        && nextEviction.compareAndSet(next, now + TimeUnit.MICROSECONDS.toNanos(periodMicros))) {
+      jdbcTemplate.update(DELETE_IDLE);
+    }
+  }
+}
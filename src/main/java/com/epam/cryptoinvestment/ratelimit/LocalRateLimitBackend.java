@@ -0,0 +1,91 @@
+package com.epam.cryptoinvestment.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+  token bucket of a client is one long, the time when the bucket is full again (theoretical
+  arrival time of GCRA): every permit moves it by period / limit, and permits are taken only if
+  it stays at most one period ahead of now, so there are up to `limit` permits at once and
+  they come back at the same rate. it is updated with compare and set, so there are no locks
+
+  a bucket whose time is already passed is the same as a new one, so such buckets are removed
+  once per period (idle clients don't stay in memory). before removal the bucket is marked as
+  removed, so a permit can't be taken from a bucket which is not in the map anymore
+*/
+@Component
+@ConditionalOnProperty(name = "rate-limit.client.backend", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+  private static final long REMOVED = Long.MAX_VALUE;
+
+  private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+  private final long periodNanos;
+  private final long nanosPerPermit;
+  private final LongSupplier nanoClock;
+  private final AtomicLong nextEviction;
+
+  @Autowired
+  public LocalRateLimitBackend(@Value("${request.limit.number}") int limit,
+                               @Value("${request.limit.time.minutes}") int minutes) {
+    this(limit, Duration.ofMinutes(minutes), System::nanoTime);
+  }
+
+  public LocalRateLimitBackend(int limit, Duration period, LongSupplier nanoClock) {
+    this.periodNanos = period.toNanos();
+    this.nanosPerPermit = periodNanos / limit;
+    this.nanoClock = nanoClock;
+    this.nextEviction = new AtomicLong(nanoClock.getAsLong() + periodNanos);
+  }
+
+  @Override
+  public boolean tryAcquire(String client, int permits) {
+    long cost = permits * nanosPerPermit;
+    if (cost > periodNanos) {
+      return false;
+    }
+    evictIdle();
+    while (true) {
+      var bucket = buckets.computeIfAbsent(client, c -> new AtomicLong(nanoClock.getAsLong()));
+      long full = bucket.get();
+      if (full == REMOVED) {
+        buckets.remove(client, bucket);
+        continue;
+      }
+      long now = nanoClock.getAsLong();
+      long newFull = (full - now > 0 ? full : now) + cost;
+      if (newFull - now > periodNanos) {
+        return false;
+      }
+      if (bucket.compareAndSet(full, newFull)) {
+        return true;
+      }
+    }
+  }
+
+  public int size() {
+    return buckets.size();
+  }
+
+  // only the thread which moves the next eviction time removes idle buckets
+  private void evictIdle() {
+    long now = nanoClock.getAsLong();
+    long next = nextEviction.get();
+    if (now - next < 0 || !nextEviction.compareAndSet(next, now + periodNanos)) {
+      return;
+    }
+    buckets.forEach((client, bucket) -> {
+      long full = bucket.get();
+      if (full != REMOVED && full - now <= 0 && bucket.compareAndSet(full, REMOVED)) {
+        buckets.remove(client, bucket);
+      }
+    });
+  }
+}
@@ -0,0 +1,13 @@
+package com.epam.cryptoinvestment.ratelimit;
+
+/*
+  keeps the token bucket of every client, limit and period are given to the backend when it
+  is created. LocalRateLimitBackend keeps them in memory (one instance), JdbcRateLimitBackend
+  in the database, so every instance which uses the same database shares the same limits
+*/
+public interface RateLimitBackend {
+
+  // takes the permits if the client has them, nothing is taken otherwise
+  boolean tryAcquire(String client, int permits);
+
+}
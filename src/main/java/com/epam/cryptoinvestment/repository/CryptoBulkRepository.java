@@ -0,0 +1,98 @@
+package com.epam.cryptoinvestment.repository;
+
+import com.epam.cryptoinvestment.model.CryptoPriceBatch;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+  this repository is used only for importing data from csv files
+
+  CryptoEntity uses IDENTITY id generation, so hibernate can't batch inserts
+  and every cryptoRepository.save is a separate round trip to the database.
+  here we send rows with plain jdbc batches instead, one round trip per batch
+
+  duplicates (same timestamp and crypto name pair) are resolved by the database
+  with ON CONFLICT DO NOTHING, so there is no need to catch exceptions for every row
+
+  timestamp column has no time zone, timestamps are written in UTC (the same as hibernate
+  does with hibernate.jdbc.time_zone), so daily rollups don't depend on the zone of the jvm
+*/
+@Repository
+@RequiredArgsConstructor
+public class CryptoBulkRepository {
+
+  private static final String INSERT_IGNORING_DUPLICATES =
+        "INSERT INTO cryptos (crypto_name_id, price, timestamp) VALUES (?, ?, ?) "
+      + "ON CONFLICT (timestamp, crypto_name_id) DO NOTHING";
+
+  private static final String INSERT_OR_UPDATE_PRICE =
+        "INSERT INTO cryptos (crypto_name_id, price, timestamp) VALUES (?, ?, ?) "
+      + "ON CONFLICT (timestamp, crypto_name_id) DO UPDATE SET price = EXCLUDED.price "
+      + "WHERE cryptos.price <> EXCLUDED.price";
+
+  private static final String INSERT_CRYPTO_NAME_IF_MISSING =
+      "INSERT INTO crypto_names (name) VALUES (?) ON CONFLICT (name) DO NOTHING";
+
+  private static final String SELECT_CRYPTO_NAME_ID = "SELECT id FROM crypto_names WHERE name = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /*
+    several files can be imported at the same time and two of them may contain the same
+    new crypto, if both of them try to save it one will fail on unique name constraint.
+    so we insert the name only if it is missing and then read its id, whichever file was first.
+    it runs in its own short transaction, so the name is visible to other files right away
+    and they don't have to wait for the whole file import to finish
+  */
+  @Transactional(TxType.REQUIRES_NEW)
+  public long findOrCreateCryptoName(String name) {
+    jdbcTemplate.update(INSERT_CRYPTO_NAME_IF_MISSING, name);
+    return jdbcTemplate.queryForObject(SELECT_CRYPTO_NAME_ID, Long.class, name);
+  }
+
+  /*
+    inserts every row from the batch, rows which already exist in the database are skipped
+  */
+  public void insertIgnoringDuplicates(CryptoPriceBatch batch) {
+    insert(INSERT_IGNORING_DUPLICATES, batch);
+  }
+
+  /*
+    inserts every row from the batch, rows which already exist in the database get the price
+    from the batch (only if it is different, so unchanged rows are not rewritten).
+    used when a file which was already imported has changed
+  */
+  public void insertOrUpdatePrices(CryptoPriceBatch batch) {
+    insert(INSERT_OR_UPDATE_PRICE, batch);
+  }
+
+  private void insert(String sql, CryptoPriceBatch batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    var utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+    jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        ps.setLong(1, batch.getCryptoNameId(i));
+        ps.setDouble(2, batch.getPrice(i));
+        ps.setTimestamp(3, new Timestamp(batch.getTimestamp(i)), utc);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return batch.size();
+      }
+    });
+  }
+}
@@ -0,0 +1,57 @@
+package com.epam.cryptoinvestment.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+  cryptos table is partitioned by month (V7 migration), creating a partition needs an exclusive
+  lock on cryptos, which can't be taken while other files are inserting in their own transactions.
+  so partitions for the months of the files are created before the files are imported.
+  rows of months which still have no partition (e.g. a file grew after its months were read)
+  land in cryptos_default partition and are moved to new partitions after the import is finished,
+  that writes them twice, so it should be rare
+*/
+@Repository
+@RequiredArgsConstructor
+public class CryptoPartitionRepository {
+
+  private static final String MOVE_DEFAULT_ROWS = "SELECT move_cryptos_default_rows()";
+
+  // partition can't be created while the default partition has rows of its month
+  private static final String CREATE_PARTITION =
+        "SELECT create_cryptos_partition(?) "
+      + "WHERE NOT EXISTS (SELECT 1 FROM cryptos_default WHERE timestamp >= ? AND timestamp < ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /*
+    creates partitions of the months (the first day of the month) which don't have them yet,
+    months which have rows in the default partition are left to createPartitionsForDefaultRows.
+    returns the number of created partitions
+  */
+  @Transactional
+  public int createPartitions(Collection<LocalDate> months) {
+    int created = 0;
+    for (var month : months) {
+      var partitionCreated = jdbcTemplate.queryForList(CREATE_PARTITION, Boolean.class, month,
+                                                       month.atStartOfDay(), month.plusMonths(1).atStartOfDay());
+      if (partitionCreated.contains(true)) {
+        created++;
+      }
+    }
+    return created;
+  }
+
+  /*
+    creates partitions for months which have rows in the default partition and moves
+    the rows there, returns the number of created partitions
+  */
+  @Transactional
+  public int createPartitionsForDefaultRows() {
+    return jdbcTemplate.queryForObject(MOVE_DEFAULT_ROWS, Integer.class);
+  }
+}
@@ -1,9 +1,12 @@
 package com.epam.cryptoinvestment.repository;
 
 import com.epam.cryptoinvestment.entities.CryptoEntity;
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
+import com.epam.cryptoinvestment.model.CryptoPriceRange;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -12,50 +15,62 @@ import org.springframework.stereotype.Repository;
 public interface CryptoRepository extends JpaRepository<CryptoEntity, Long> {
 
   /*
-    1. first query selects min timestamp where the timestamp is between the provided values
-    2. second query selects max timestamp where the timestamp is between the provided values
-    3. third query selects all rows where the price is equal to min price and timestamp is in range
-    4. fourth query selects all rows where the price is equal to max price and timestamp is in range
+    queries for stats of one crypto return CryptoPricePoint (timestamp and price) with
+    constructor projection instead of CryptoEntity, so there are no managed entities and no
+    join or extra select for the eager crypto name of every row
 
-    3 and 4 return lists because maybe the minimum or maximum price occurred several times
-    but for 1 and 2 I consider that for specific timestamp there should only be 1 price
+    1. oldest and newest price in range are the first row of findPricePointsInRange
+       sorted by timestamp ascending or descending
+    2. min and max price in range are selected with findPriceRangeInRange (or from rollups)
+    3. then rows with these prices are selected, maybe the minimum or maximum price
+       occurred several times, so the list is limited by the page and all of them are counted
 
     this type of queries gives us the flexibility to select records from whatever time range
     we want, so if in future any range is required (last 1,2,3 etc. months or whatever) we can
     just provide the start and end ranges accordingly and the queries will work
+
+    cryptos table is partitioned by month on timestamp (V7 migration), every query here
+    compares timestamp column itself with the range, so postgres scans only the partitions
+    of the months in the range. keep it that way, a function over timestamp disables pruning
   */
 
-  @Query(   "SELECT crypto "
+  @Query(   "SELECT new com.epam.cryptoinvestment.model.CryptoPricePoint(crypto.timestamp, crypto.price) "
          +  "FROM CryptoEntity crypto "
-         +  "WHERE crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 AND crypto.timestamp = "
-         +    "(SELECT MIN (crypto.timestamp) "
-         +    "FROM CryptoEntity crypto "
-         +    "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 )")
-  Optional<CryptoEntity> findOldestInRange(Long id, ZonedDateTime start, ZonedDateTime end);
+         +  "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3")
+  List<CryptoPricePoint> findPricePointsInRange(Long id, ZonedDateTime start, ZonedDateTime end,
+                                                Pageable pageable);
+
+  @Query(   "SELECT new com.epam.cryptoinvestment.model.CryptoPriceRange("
+            +    "crypto.cryptoName.name, MIN (crypto.price), MAX (crypto.price)) "
+            +  "FROM CryptoEntity crypto "
+            +  "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3 "
+            +  "GROUP BY crypto.cryptoName.name")
+  Optional<CryptoPriceRange> findPriceRangeInRange(Long id, ZonedDateTime start, ZonedDateTime end);
 
-  @Query(   "SELECT crypto "
+  @Query(   "SELECT new com.epam.cryptoinvestment.model.CryptoPricePoint(crypto.timestamp, crypto.price) "
             +  "FROM CryptoEntity crypto "
-            +  "WHERE crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 AND crypto.timestamp = "
-            +    "(SELECT MAX (crypto.timestamp) "
-            +    "FROM CryptoEntity crypto "
-            +    "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 )")
-  Optional<CryptoEntity> findNewestInRange(Long id, ZonedDateTime start, ZonedDateTime end);
+            +  "WHERE crypto.cryptoName.id = ?1 AND crypto.price = ?2 "
+            +  "AND crypto.timestamp >= ?3 AND crypto.timestamp < ?4")
+  List<CryptoPricePoint> findPricePointsByPriceInRange(Long id, double price, ZonedDateTime start,
+                                                       ZonedDateTime end, Pageable pageable);
 
-  @Query(   "SELECT crypto "
+  @Query(   "SELECT COUNT (crypto) "
             +  "FROM CryptoEntity crypto "
-            +  "WHERE crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 AND crypto.price = "
-            +    "(SELECT MIN (crypto.price) "
-            +    "FROM CryptoEntity crypto "
-            +    "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 )")
-  List<CryptoEntity> findMinPriceInRange(Long id, ZonedDateTime start, ZonedDateTime end);
+            +  "WHERE crypto.cryptoName.id = ?1 AND crypto.price = ?2 "
+            +  "AND crypto.timestamp >= ?3 AND crypto.timestamp < ?4")
+  long countByPriceInRange(Long id, double price, ZonedDateTime start, ZonedDateTime end);
 
-  @Query(   "SELECT crypto "
+  /*
+    selects min and max price for every crypto in the range with one query,
+    cryptos which have no data in the range are not returned
+  */
+  @Query(   "SELECT new com.epam.cryptoinvestment.model.CryptoPriceRange("
+            +    "crypto.cryptoName.name, MIN (crypto.price), MAX (crypto.price)) "
             +  "FROM CryptoEntity crypto "
-            +  "WHERE crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 AND crypto.price = "
-            +    "(SELECT MAX (crypto.price) "
-            +    "FROM CryptoEntity crypto "
-            +    "WHERE crypto.cryptoName.id = ?1 AND crypto.timestamp >= ?2 AND crypto.timestamp < ?3 AND crypto.cryptoName.id = ?1 )")
-  List<CryptoEntity> findMaxPriceInRange(Long id, ZonedDateTime start, ZonedDateTime end);
+            +  "WHERE crypto.timestamp >= ?1 AND crypto.timestamp < ?2 "
+            +  "GROUP BY crypto.cryptoName.name "
+            +  "ORDER BY crypto.cryptoName.name")
+  List<CryptoPriceRange> findPriceRangesInRange(ZonedDateTime start, ZonedDateTime end);
 
   @Query("SELECT crypto FROM CryptoEntity crypto WHERE crypto.cryptoName.id = ?1")
   List<CryptoEntity> findByNameId(Long nameId);
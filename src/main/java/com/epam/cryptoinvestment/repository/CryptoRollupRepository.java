@@ -0,0 +1,216 @@
+package com.epam.cryptoinvestment.repository;
+
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.CryptoPriceRange;
+import com.epam.cryptoinvestment.model.Range;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+  daily and monthly open/high/low/close rollups of the prices (V6 migration)
+  and normalized prices of every day with the max normalized crypto (V10 migration)
+
+  range is split into 3 parts: full months are read from monthly rollups, full days which are
+  not in these months from daily rollups and only the partial days at the edges of the range
+  from cryptos table. so six months of minute prices is about 180 rows instead of 250 000
+*/
+@Repository
+@RequiredArgsConstructor
+public class CryptoRollupRepository {
+
+  private static final String REFRESH_DAILY_ROLLUPS =
+        "INSERT INTO crypto_daily_rollups "
+      +   "(crypto_name_id, day, open, high, low, close, first_timestamp, last_timestamp) "
+      + "SELECT crypto_name_id, date_trunc('day', timestamp)::date, "
+      +   "(array_agg(price ORDER BY timestamp))[1], MAX(price), MIN(price), "
+      +   "(array_agg(price ORDER BY timestamp DESC))[1], MIN(timestamp), MAX(timestamp) "
+      + "FROM cryptos "
+      + "WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = :name) "
+      +   "AND timestamp >= :from AND timestamp < :to "
+      + "GROUP BY crypto_name_id, date_trunc('day', timestamp)::date "
+      + "ON CONFLICT (crypto_name_id, day) DO UPDATE SET "
+      +   "open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close, "
+      +   "first_timestamp = EXCLUDED.first_timestamp, last_timestamp = EXCLUDED.last_timestamp";
+
+  private static final String REFRESH_MONTHLY_ROLLUPS =
+        "INSERT INTO crypto_monthly_rollups "
+      +   "(crypto_name_id, month, open, high, low, close, first_timestamp, last_timestamp) "
+      + "SELECT crypto_name_id, date_trunc('month', day)::date, "
+      +   "(array_agg(open ORDER BY day))[1], MAX(high), MIN(low), "
+      +   "(array_agg(close ORDER BY day DESC))[1], MIN(first_timestamp), MAX(last_timestamp) "
+      + "FROM crypto_daily_rollups "
+      + "WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = :name) "
+      +   "AND day >= :from AND day < :to "
+      + "GROUP BY crypto_name_id, date_trunc('month', day)::date "
+      + "ON CONFLICT (crypto_name_id, month) DO UPDATE SET "
+      +   "open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close, "
+      +   "first_timestamp = EXCLUDED.first_timestamp, last_timestamp = EXCLUDED.last_timestamp";
+
+  private static final String DELETE_DAILY_NORMALIZED =
+      "DELETE FROM crypto_daily_normalized WHERE day >= :from AND day < :to";
+
+  /*
+    all cryptos of the days are calculated again, not only the imported one,
+    because the winner of the day may be a different crypto now
+  */
+  private static final String INSERT_DAILY_NORMALIZED =
+        "INSERT INTO crypto_daily_normalized (day, crypto_name_id, min, max, normalized, winner) "
+      + "SELECT rollup.day, rollup.crypto_name_id, rollup.low, rollup.high, "
+      +   "(rollup.high - rollup.low) / rollup.low, "
+      +   "row_number() OVER (PARTITION BY rollup.day "
+      +                      "ORDER BY (rollup.high - rollup.low) / rollup.low DESC, name.name) = 1 "
+      + "FROM crypto_daily_rollups rollup "
+      + "JOIN crypto_names name ON name.id = rollup.crypto_name_id "
+      + "WHERE rollup.day >= :from AND rollup.day < :to AND rollup.low <> 0";
+
+  private static final String SELECT_MAX_NORMALIZED =
+        "SELECT name.name, normalized.normalized FROM crypto_daily_normalized normalized "
+      + "JOIN crypto_names name ON name.id = normalized.crypto_name_id "
+      + "WHERE normalized.day = :day AND normalized.winner";
+
+  private static final String PRICES_IN_RANGE =
+        "SELECT crypto_name_id, price AS low, price AS high FROM cryptos "
+      + "WHERE ((timestamp >= :start AND timestamp < :startDayEnd) "
+      +   "OR (timestamp >= :endDayStart AND timestamp < :end)) %1$s "
+      + "UNION ALL "
+      + "SELECT crypto_name_id, low, high FROM crypto_daily_rollups "
+      + "WHERE ((day >= :dayStart AND day < :monthStart) OR (day >= :monthEnd AND day < :dayEnd)) %1$s "
+      + "UNION ALL "
+      + "SELECT crypto_name_id, low, high FROM crypto_monthly_rollups "
+      + "WHERE month >= :monthStart AND month < :monthEnd %1$s";
+
+  private static final String SELECT_PRICE_RANGES =
+        "SELECT name.name, MIN(prices.low), MAX(prices.high) "
+      + "FROM (" + String.format(PRICES_IN_RANGE, "") + ") prices "
+      + "JOIN crypto_names name ON name.id = prices.crypto_name_id "
+      + "GROUP BY name.name ORDER BY name.name";
+
+  private static final String SELECT_PRICE_RANGE_BY_NAME_ID =
+        "SELECT name.name, MIN(prices.low), MAX(prices.high) "
+      + "FROM (" + String.format(PRICES_IN_RANGE, "AND crypto_name_id = :id") + ") prices "
+      + "JOIN crypto_names name ON name.id = prices.crypto_name_id "
+      + "GROUP BY name.name";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /*
+    recalculates rollups for every day and month touched by the imported range of the crypto,
+    they are calculated from all prices of these days (not only the imported ones),
+    then normalized prices of these days are calculated from the daily rollups.
+    days are UTC days, the imported range is converted to UTC the same way as the stored timestamps
+  */
+  @Transactional
+  public void refresh(String crypto, Range importedRange) {
+    var firstDay = importedRange.getStart().withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    var lastDay = importedRange.getEnd().withZoneSameInstant(ZoneOffset.UTC)
+                               .minusNanos(1).toLocalDate();
+    jdbcTemplate.update(REFRESH_DAILY_ROLLUPS, new MapSqlParameterSource()
+        .addValue("name", crypto)
+        .addValue("from", toTimestamp(firstDay))
+        .addValue("to", toTimestamp(lastDay.plusDays(1))));
+    jdbcTemplate.update(REFRESH_MONTHLY_ROLLUPS, new MapSqlParameterSource()
+        .addValue("name", crypto)
+        .addValue("from", firstDay.withDayOfMonth(1))
+        .addValue("to", lastDay.withDayOfMonth(1).plusMonths(1)));
+    var days = new MapSqlParameterSource()
+        .addValue("from", firstDay)
+        .addValue("to", lastDay.plusDays(1));
+    jdbcTemplate.update(DELETE_DAILY_NORMALIZED, days);
+    jdbcTemplate.update(INSERT_DAILY_NORMALIZED, days);
+  }
+
+  /*
+    crypto with the highest normalized price of the day (UTC), empty if the day
+    has no normalized prices (no prices were imported for it)
+  */
+  public Optional<CryptoPrice> findMaxNormalized(LocalDate day) {
+    return jdbcTemplate.query(SELECT_MAX_NORMALIZED, new MapSqlParameterSource("day", day),
+                              (resultSet, i) -> new CryptoPrice(resultSet.getString(1), resultSet.getDouble(2)))
+                       .stream()
+                       .findFirst();
+  }
+
+  /*
+    min and max price of every crypto in range, the same as CryptoRepository.findPriceRangesInRange
+  */
+  public List<CryptoPriceRange> findPriceRangesInRange(ZonedDateTime start, ZonedDateTime end) {
+    return jdbcTemplate.query(SELECT_PRICE_RANGES, rangeParameters(start, end),
+                              (resultSet, i) -> new CryptoPriceRange(resultSet.getString(1),
+                                                                     resultSet.getDouble(2),
+                                                                     resultSet.getDouble(3)));
+  }
+
+  public Optional<CryptoPriceRange> findPriceRangeInRange(Long id, ZonedDateTime start, ZonedDateTime end) {
+    return jdbcTemplate.query(SELECT_PRICE_RANGE_BY_NAME_ID,
+                              rangeParameters(start, end).addValue("id", id),
+                              (resultSet, i) -> new CryptoPriceRange(resultSet.getString(1),
+                                                                     resultSet.getDouble(2),
+                                                                     resultSet.getDouble(3)))
+                       .stream()
+                       .findFirst();
+  }
+
+  /*
+    [start, startDayEnd) and [endDayStart, end) are partial days read from cryptos table,
+    [dayStart, dayEnd) are full days and [monthStart, monthEnd) are full months inside them.
+    if there are no full days or months their ranges are empty
+    and everything is read from the other parts
+  */
+  private MapSqlParameterSource rangeParameters(ZonedDateTime start, ZonedDateTime end) {
+    var utcStart = start.withZoneSameInstant(ZoneOffset.UTC);
+    var dayStart = utcStart.truncatedTo(ChronoUnit.DAYS).equals(utcStart)
+                   ? utcStart.toLocalDate() : utcStart.toLocalDate().plusDays(1);
+    var dayEnd = end.withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    var parameters = new MapSqlParameterSource()
+        .addValue("start", toTimestamp(start.toInstant()))
+        .addValue("end", toTimestamp(end.toInstant()));
+
+    if (!dayStart.isBefore(dayEnd)) {
+      return parameters
+          .addValue("startDayEnd", toTimestamp(end.toInstant()))
+          .addValue("endDayStart", toTimestamp(end.toInstant()))
+          .addValue("dayStart", dayEnd)
+          .addValue("dayEnd", dayEnd)
+          .addValue("monthStart", dayEnd)
+          .addValue("monthEnd", dayEnd);
+    }
+
+    var monthStart = dayStart.getDayOfMonth() == 1
+                     ? dayStart : dayStart.withDayOfMonth(1).plusMonths(1);
+    var monthEnd = dayEnd.withDayOfMonth(1);
+    if (!monthStart.isBefore(monthEnd)) {
+      monthStart = dayEnd;
+      monthEnd = dayEnd;
+    }
+    return parameters
+        .addValue("startDayEnd", toTimestamp(dayStart))
+        .addValue("endDayStart", toTimestamp(dayEnd))
+        .addValue("dayStart", dayStart)
+        .addValue("dayEnd", dayEnd)
+        .addValue("monthStart", monthStart)
+        .addValue("monthEnd", monthEnd);
+  }
+
+  /*
+    timestamp column has no time zone and keeps UTC time (see CryptoBulkRepository),
+    so days are cut in UTC whatever the zone of the jvm is
+  */
+  private static LocalDateTime toTimestamp(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+  }
+
+  private static LocalDateTime toTimestamp(LocalDate day) {
+    return day.atStartOfDay();
+  }
+}
@@ -0,0 +1,98 @@
+package com.epam.cryptoinvestment.repository;
+
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+  reads prices of a crypto ordered by timestamp without creating entities for every row,
+  it is used to load the data to memory (see CryptoSeriesStore) and to export prices
+  rows are fetched from server side cursor in chunks, so the whole result is never in memory
+*/
+@Repository
+@RequiredArgsConstructor
+public class CryptoSeriesRepository {
+
+  private static final int FETCH_SIZE = 10_000;
+
+  private static final String SELECT_PRICES_BY_NAME =
+        "SELECT crypto.timestamp, crypto.price FROM cryptos crypto "
+      + "JOIN crypto_names name ON name.id = crypto.crypto_name_id "
+      + "WHERE name.name = ? ORDER BY crypto.timestamp";
+
+  private static final String SELECT_PRICES_BY_NAME_FROM =
+        "SELECT crypto.timestamp, crypto.price FROM cryptos crypto "
+      + "JOIN crypto_names name ON name.id = crypto.crypto_name_id "
+      + "WHERE name.name = ? AND crypto.timestamp >= ? ORDER BY crypto.timestamp";
+
+  private static final String SELECT_PRICES_BY_NAME_ID_IN_RANGE =
+        "SELECT timestamp, price FROM cryptos "
+      + "WHERE crypto_name_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public interface PriceConsumer {
+    void accept(long timestamp, double price);
+  }
+
+  // postgres uses cursor for fetch size only when autocommit is off, so it is transactional
+  @Transactional
+  public void findPricesByName(String name, PriceConsumer consumer) {
+    var utc = utcCalendar();
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(SELECT_PRICES_BY_NAME);
+      statement.setFetchSize(FETCH_SIZE);
+      statement.setString(1, name);
+      return statement;
+    }, resultSet -> {
+      consumer.accept(resultSet.getTimestamp(1, utc).getTime(), resultSet.getDouble(2));
+    });
+  }
+
+  /*
+    the same as above, but only prices with timestamp >= from (epoch milliseconds)
+  */
+  @Transactional
+  public void findPricesByNameFrom(String name, long from, PriceConsumer consumer) {
+    var utc = utcCalendar();
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(SELECT_PRICES_BY_NAME_FROM);
+      statement.setFetchSize(FETCH_SIZE);
+      statement.setString(1, name);
+      statement.setTimestamp(2, new Timestamp(from), utc);
+      return statement;
+    }, resultSet -> {
+      consumer.accept(resultSet.getTimestamp(1, utc).getTime(), resultSet.getDouble(2));
+    });
+  }
+
+  /*
+    prices of one crypto with from <= timestamp < to (epoch milliseconds), the next chunk
+    is fetched only when the consumer is done with the previous one, so a slow consumer
+    (export to a slow client) slows down reading instead of filling the memory
+  */
+  @Transactional
+  public void findPricesByNameIdInRange(long nameId, long from, long to, PriceConsumer consumer) {
+    var utc = utcCalendar();
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(SELECT_PRICES_BY_NAME_ID_IN_RANGE);
+      statement.setFetchSize(FETCH_SIZE);
+      statement.setLong(1, nameId);
+      statement.setTimestamp(2, new Timestamp(from), utc);
+      statement.setTimestamp(3, new Timestamp(to), utc);
+      return statement;
+    }, resultSet -> {
+      consumer.accept(resultSet.getTimestamp(1, utc).getTime(), resultSet.getDouble(2));
+    });
+  }
+
+  // timestamps are stored in UTC, see CryptoBulkRepository
+  private static Calendar utcCalendar() {
+    return Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+  }
+}
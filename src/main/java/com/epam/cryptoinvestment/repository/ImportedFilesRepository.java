@@ -2,7 +2,11 @@ package com.epam.cryptoinvestment.repository;
 
 import com.epam.cryptoinvestment.entities.ImportedFileEntity;
 import java.util.Optional;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,4 +14,13 @@ public interface ImportedFilesRepository extends JpaRepository<ImportedFileEntit
 
   Optional<ImportedFileEntity> findByName(String name);
 
+  /*
+    progress is updated while the file is still being imported in its own transaction,
+    so it runs in a new transaction to be visible to others before the import finishes
+  */
+  @Transactional(TxType.REQUIRES_NEW)
+  @Modifying
+  @Query("UPDATE ImportedFileEntity file SET file.rowsImported = ?2 WHERE file.name = ?1")
+  void updateRowsImported(String name, long rowsImported);
+
 }
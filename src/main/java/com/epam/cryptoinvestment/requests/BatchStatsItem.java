@@ -0,0 +1,28 @@
+package com.epam.cryptoinvestment.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One crypto and range in the batch, range is given in months or in days "
+                      + "(exactly one of them, the same way as in MonthRequest and DayRequest)")
+public class BatchStatsItem {
+  @Schema(required = true, example = "BTC")
+  @NotNull
+  String crypto;
+  @Schema(required = true,
+          example = "2022-1-1",
+          pattern = "yyyy-M-d",
+          description = "start should be provided in corresponding format")
+  @NotNull
+  String start;
+  @Schema(example = "1", description = "number of months before (negative) or after the start")
+  int months;
+  @Schema(example = "0", description = "number of days before (negative) or after the start")
+  int days;
+}
@@ -0,0 +1,19 @@
+package com.epam.cryptoinvestment.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Stats for many cryptos and ranges at once, at most stats.batch.max-items of them")
+public class BatchStatsRequest {
+  @NotNull
+  @Valid
+  List<BatchStatsItem> items;
+}
@@ -0,0 +1,33 @@
+package com.epam.cryptoinvestment.requests;
+
+import com.epam.cryptoinvestment.model.RollingStep;
+import io.swagger.v3.oas.annotations.media.Schema;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request form for the rolling normalized prices, span is given in days "
+                      + "the same way as in DayRequest and it is split into steps")
+public class RollingRequest {
+  @Schema(required = true,
+          example = "2022-1-1",
+          pattern = "yyyy-M-d",
+          description = "start should be provided in corresponding format")
+  @NotNull
+  String start;
+  @Schema(required = true, example = "31", description = "This parameter shouldn't be 0!; "
+                                          + " number of days before (negative) or after the start")
+  int days;
+  @Schema(required = true, example = "DAY", description = "DAY, WEEK or MONTH")
+  @NotNull
+  RollingStep step;
+  @Schema(example = "1", description = "length of every window in steps, for example step DAY "
+                                       + "and window 7 is the range of the last 7 days for every day")
+  @Min(1)
+  int window = 1;
+}
@@ -0,0 +1,13 @@
+package com.epam.cryptoinvestment.responses;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Stats for every item of the batch request, in the same order")
+public class BatchStatsResponse {
+  List<CryptoStatsResponse> stats;
+}
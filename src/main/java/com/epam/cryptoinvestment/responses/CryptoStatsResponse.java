@@ -1,6 +1,6 @@
 package com.epam.cryptoinvestment.responses;
 
-import com.epam.cryptoinvestment.entities.CryptoEntity;
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -12,8 +12,14 @@ import lombok.Data;
 public class CryptoStatsResponse {
   @Schema(example = "BTC")
   String crypto;
-  CryptoEntity oldest;
-  CryptoEntity newest;
-  List<CryptoEntity> minPrice;
-  List<CryptoEntity> maxPrice;
+  CryptoPricePoint oldest;
+  CryptoPricePoint newest;
+  @Schema(description = "first moments (by time) when the price was min, at most stats.ties.limit of them")
+  List<CryptoPricePoint> minPrice;
+  @Schema(description = "first moments (by time) when the price was max, at most stats.ties.limit of them")
+  List<CryptoPricePoint> maxPrice;
+  @Schema(example = "1", description = "how many times the price was min in the range")
+  long minPriceCount;
+  @Schema(example = "1", description = "how many times the price was max in the range")
+  long maxPriceCount;
 }
@@ -0,0 +1,17 @@
+package com.epam.cryptoinvestment.responses;
+
+import com.epam.cryptoinvestment.model.RollingWindow;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Normalized prices of every crypto for every step of the span")
+public class RollingNormalizedResponse {
+
+  @Schema(example = "[]")
+  private List<RollingWindow> windows;
+
+}
@@ -1,17 +1,34 @@
 package com.epam.cryptoinvestment.service;
 
 import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.ExportFormat;
+import com.epam.cryptoinvestment.model.RollingWindow;
+import com.epam.cryptoinvestment.requests.BatchStatsItem;
 import com.epam.cryptoinvestment.requests.DayRequest;
 import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.requests.RollingRequest;
 import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface CryptoInvestment {
 
   List<CryptoPrice> getNormalizedPricesForMonth(MonthRequest month);
 
+  // only the first `limit` cryptos with the highest normalized price
+  List<CryptoPrice> getNormalizedPricesForMonth(MonthRequest month, int limit);
+
   CryptoStatsResponse getCryptoStatsForMonth(String crypto, MonthRequest month);
 
+  CompletableFuture<CryptoStatsResponse> getCryptoStatsForMonthAsync(String crypto, MonthRequest month);
+
+  List<CryptoStatsResponse> getCryptoStatsBatch(List<BatchStatsItem> items);
+
   CryptoPrice getMaxNormalizedCrypto(DayRequest day);
 
+  List<RollingWindow> getRollingNormalizedPrices(RollingRequest rolling);
+
+  StreamingResponseBody exportPrices(List<String> cryptos, DayRequest day, ExportFormat format);
+
 }
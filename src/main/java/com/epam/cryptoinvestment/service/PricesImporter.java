@@ -0,0 +1,12 @@
+package com.epam.cryptoinvestment.service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public interface PricesImporter {
+
+  void importAll();
+
+  void importFiles(List<Path> files);
+
+}
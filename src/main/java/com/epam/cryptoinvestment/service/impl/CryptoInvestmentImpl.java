@@ -1,194 +1,103 @@
 package com.epam.cryptoinvestment.service.impl;
 
-import com.epam.cryptoinvestment.entities.CryptoNameEntity;
-import com.epam.cryptoinvestment.entities.ImportedFileEntity;
-import com.epam.cryptoinvestment.entities.CryptoEntity;
+import com.epam.cryptoinvestment.analytics.RollingNormalizedRange;
+import com.epam.cryptoinvestment.analytics.TopK;
+import com.epam.cryptoinvestment.cache.CryptoStatsCache;
 import com.epam.cryptoinvestment.exceptions.CryptoNotSupportedException;
 import com.epam.cryptoinvestment.exceptions.IncorrectDaysOrMonthsValueException;
+import com.epam.cryptoinvestment.exceptions.IncorrectRollingStepsException;
+import com.epam.cryptoinvestment.metrics.StageMetrics;
 import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
+import com.epam.cryptoinvestment.model.CryptoPriceRange;
+import com.epam.cryptoinvestment.model.ExportFormat;
 import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.model.RollingWindow;
 import com.epam.cryptoinvestment.repository.CryptoRepository;
-import com.epam.cryptoinvestment.repository.CryptoNamesRepository;
-import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
+import com.epam.cryptoinvestment.repository.CryptoRollupRepository;
+import com.epam.cryptoinvestment.repository.CryptoSeriesRepository;
+import com.epam.cryptoinvestment.requests.BatchStatsItem;
 import com.epam.cryptoinvestment.requests.DayRequest;
 import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.requests.RollingRequest;
 import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
 import com.epam.cryptoinvestment.service.CryptoInvestment;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.file.DirectoryStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import com.epam.cryptoinvestment.store.CryptoNameDictionary;
+import com.epam.cryptoinvestment.store.CryptoSeries;
+import com.epam.cryptoinvestment.store.CryptoSeriesStore;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
-import javax.annotation.PostConstruct;
-import javax.transaction.Transactional;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/*
+  every method here only reads, spring's read only transaction sets hibernate session to
+  manual flush and read only, so loaded entities (crypto names) are not dirty checked
+  and no snapshots are kept for them (javax @Transactional has no read only flag)
+*/
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
+@Transactional(readOnly = true)
 public class CryptoInvestmentImpl implements CryptoInvestment {
 
+  private static final Pageable OLDEST = PageRequest.of(0, 1, Sort.by(Direction.ASC, "timestamp"));
+  private static final Pageable NEWEST = PageRequest.of(0, 1, Sort.by(Direction.DESC, "timestamp"));
+  private static final Executor DIRECT = Runnable::run;
+  private static final CompletableFuture<PricePoints> NO_PRICES =
+      CompletableFuture.completedFuture(new PricePoints(List.of(), 0));
+  // highest normalized price first, ties by name
+  private static final Comparator<CryptoPrice> DESCENDING =
+      Comparator.comparingDouble(CryptoPrice::getPrice).reversed().thenComparing(CryptoPrice::getName);
+
   private final CryptoRepository cryptoRepository;
-  private final ImportedFilesRepository importedFilesRepository;
-  private final CryptoNamesRepository cryptoNamesRepository;
-  @Value("${prices.directory.path}")
-  private String pricesDirPath;
+  private final CryptoNameDictionary cryptoNameDictionary;
+  private final CryptoRollupRepository cryptoRollupRepository;
+  private final CryptoSeriesRepository cryptoSeriesRepository;
+  private final CryptoSeriesStore cryptoSeriesStore;
+  private final CryptoStatsCache cryptoStatsCache;
+  private final Executor statsExecutor;
+  private final StageMetrics stageMetrics;
   @Value("${date.pattern}")
   private String datePattern;
-
-  /*
-    after the service bean gets created we check if there is new data
-    get all csv files from prices directory (some of them will already be imported)
-    loop over them and import data to database (first check id it is already imported)
-    if the file has already been imported (it is in database) then we skip the file
-    if its name is not in the database yet, we import data from this file
-    in the end we add the name in imported_files table, so we won't import this data again
-  */
-  @PostConstruct
-  private void postConstruct() throws IOException {
-    var resource =
-        Objects.requireNonNull(Thread.currentThread().getContextClassLoader().getResourceAsStream(pricesDirPath));
-    BufferedReader br = new BufferedReader(new InputStreamReader(resource));
-
-    br.lines()
-      .filter(file -> file.endsWith(".csv"))
-          .forEach(file -> {
-            if (importedFilesRepository.findByName(file).isEmpty()) {
-              try {
-                addRecordsFromCsvFile(file);
-              } catch (IOException e) {
-                log.error("Error while importing data from file: {}", file, e);
-              }
-              log.info("records from {} were added", file);
-              importedFilesRepository.save(new ImportedFileEntity(null, file));
-            } else {
-              log.info("File {} already imported", file);
-            }
-          });
-  }
-
-  /*
-    create new crypto record and save it to the database
-    just in case if the same record is being added again we skip it
-    so there won't be duplicated data in the database (same timestamp and crypto name)
-  */
-  private void saveCryptoPriceRecord(String fileName,
-                                    String timestamp,
-                                    CryptoNameEntity cryptoNameEntity,
-                                    String price) {
-    try {
-      var parse = ZonedDateTime
-          .ofInstant(Instant.ofEpochMilli(Long.parseLong(timestamp)), ZoneOffset.UTC);
-      var cryptoEntity = new CryptoEntity(null,
-                                          parse,
-                                          cryptoNameEntity,
-                                          Double.parseDouble(price));
-      cryptoRepository.save(cryptoEntity);
-    } catch (DataIntegrityViolationException e) {
-      // skip row if it violates constraint (timestamp and crypto name pair should be unique)
-      log.error("Skipping a row from csv file: {}; line: {} {} {};",
-                fileName, timestamp, cryptoNameEntity.getName(), price);
-    }
-  }
-
-  /*
-    we get the file object, it represents one of the csv files in the prices' directory
-    CSVReader is used to iterate over the rows and parse data
-    the first row is skipped, because it is name of columns
-    we check if CryptoName exists, if it doesn't the row is skipped
-    otherwise we get values from the line and save data to cryptos table
-  */
-  private void addRecordsFromCsvFile(String name) throws IOException {
-    // save all crypto names in memory, so we won't have to query database for every check
-    var cryptoNameToEntity = cryptoNamesRepository.findAll()
-                             .stream()
-                             .collect(Collectors.
-                                          toMap(CryptoNameEntity::getName, cn -> cn));
-    var resource =
-        Objects.requireNonNull(Thread.currentThread().getContextClassLoader().getResourceAsStream(pricesDirPath+"/"+name));
-    var reader = new CSVReader(new InputStreamReader(resource));
-    String[] line;
-    int lineNum = 0;
-    while (true) {
-
-      /*
-        while reading the file if there is an error on some line I still continue to read
-        because maybe there is some other valid data. I think for this application it is
-        more important to get as many records as possible even if the file is corrupted
-        somewhere, so if there is some exception we still continue reading
-      */
-      try {
-        line = reader.readNext();
-        if (line != null && line.length != 3) {
-          throw new CsvValidationException();
-        }
-      } catch (CsvValidationException e) {
-        log.error("There was an error on line {} in file {}, skipping line", lineNum, name);
-        continue;
-      } finally {
-        lineNum++;
-      }
-
-      /*
-        if we reach the end of the file we finish this method all the data is already
-        imported to the database
-      */
-      if (line == null) {
-        break;
-      }
-
-      var timestamp = line[0];
-      var cryptoName = line[1];
-      var price = line[2];
-
-      /*
-        skip the first line if it is just the column name
-      */
-      if (timestamp.equals("timestamp")) {
-        log.debug("addRecordsFromCsvFile: skipping the first line in csv file");
-        continue;
-      }
-
-      /*
-        if we don't have this crypto name in the database we save it
-        this check provides us with future extension possibility
-        if there is a new file added with new crypto name it will be seamlessly added
-        and after this we will be able to provide info about this crypto too
-      */
-      if (!cryptoNameToEntity.containsKey(cryptoName)) {
-        var cryptoNameEntity = cryptoNamesRepository.save(
-            new CryptoNameEntity(null, cryptoName));
-        cryptoNameToEntity.put(cryptoName, cryptoNameEntity);
-      }
-
-      saveCryptoPriceRecord(name, timestamp, cryptoNameToEntity.get(cryptoName), price);
-    }
-  }
+  @Value("${prices.rollups.enabled}")
+  private boolean rollupsEnabled;
+  @Value("${stats.ties.limit}")
+  private int tiesLimit;
+  @Value("${stats.rolling.max-steps}")
+  private int rollingMaxSteps;
+  @Value("${stats.ranking.parallel-threshold}")
+  private int rankingParallelThreshold;
 
   /*
     if the months is negative that means we want to check data for last months for example
@@ -203,7 +112,7 @@ public class CryptoInvestmentImpl implements CryptoInvestment {
 
     at the end we choose min date as the start and max date as the end
   */
-  private Range getStartAndEndForMonths(LocalDate date, int months) {
+  Range getStartAndEndForMonths(LocalDate date, int months) {
     /*
       with date and number of months, we construct the range which we want data from
     */
@@ -219,72 +128,234 @@ public class CryptoInvestmentImpl implements CryptoInvestment {
     return new Range(end.isAfter(start) ? start : end, end.isAfter(start) ? end : start);
   }
 
-  private List<CryptoPrice> getNormalizedPricesDescending(ZonedDateTime start, ZonedDateTime end) {
-    /*
-      then we get the data for the requested month for each crypto
-    */
-    var normalizedPrices = new ArrayList<CryptoPrice>();
-    cryptoNamesRepository.findAll().forEach(cn -> {
-      var minPrice = cryptoRepository.findMinPriceInRange(cn.getId(), start, end);
-      var maxPrice = cryptoRepository.findMaxPriceInRange(cn.getId(), start, end);
-
-      if (minPrice.isEmpty()) {
-        log.error("Crypto {} not available in range {} - {}", cn.getName(), start, end);
-        return;
-      }
+  /*
+    normalized price of every crypto in the range (not sorted, that is done for every request
+    in rankDescending), with many cryptos they are calculated in parallel
+  */
+  private List<CryptoPrice> findNormalizedPrices(ZonedDateTime start, ZonedDateTime end) {
+    var priceRanges = stageMetrics.time("price-ranges", () -> findPriceRanges(start, end));
+    return stream(priceRanges)
+        .filter(priceRange -> {
+          /*
+            division by zero, we just skip, (other way would be to add some delta and divide by
+            that, so we would get some big number, or maybe return inf straight away)
+          */
+          if (priceRange.getMin() == 0) {
+            log.error("Can't calculate normalized price, min is 0: {}", priceRange.getName());
+            return false;
+          }
+          return true;
+        })
+        .map(priceRange -> new CryptoPrice(priceRange.getName(),
+                                           (priceRange.getMax() - priceRange.getMin()) / priceRange.getMin()))
+        .collect(Collectors.toList());
+  }
 
-      double min = minPrice.get(0).getPrice();
-      double max = maxPrice.get(0).getPrice();
-      /*
-        division by zero, we just skip, (other way would be to add some delta and divide by
-        that, so we would get some big number, or maybe return inf straight away)
-      */
-      if (min != 0) {
-        normalizedPrices.add(new CryptoPrice(cn.getName(), (max - min) / min));
-      } else {
-        log.error("Can't calculate normalized price, min is 0: {}", cn.getName());
+  /*
+    first `limit` normalized prices in descending order, if only some of them are requested
+    they are selected with a bounded heap (TopK) instead of sorting all of them, with many
+    cryptos every fork-join task of the parallel stream selects from its part
+  */
+  private List<CryptoPrice> rankDescending(List<CryptoPrice> normalizedPrices, int limit) {
+    return stageMetrics.time("sort", () -> {
+      if (limit >= normalizedPrices.size()) {
+        var sorted = new ArrayList<>(normalizedPrices);
+        sortDescending(sorted);
+        return sorted;
       }
+      return stream(normalizedPrices).collect(TopK.collector(limit, DESCENDING));
     });
+  }
+
+  private static void sortDescending(List<CryptoPrice> normalizedPrices) {
+    normalizedPrices.sort(DESCENDING);
+  }
 
+  // parallel stream (common fork-join pool) only when there are enough elements to split
+  private <T> Stream<T> stream(Collection<T> elements) {
+    return elements.size() >= rankingParallelThreshold ? elements.parallelStream() : elements.stream();
+  }
+
+  /*
+    if the prices are loaded to memory we find min and max price for every crypto there,
+    otherwise it is one query to the database (mostly answered from daily and monthly rollups)
+  */
+  private List<CryptoPriceRange> findPriceRanges(ZonedDateTime start, ZonedDateTime end) {
+    if (!cryptoSeriesStore.isReady()) {
+      return rollupsEnabled
+             ? cryptoRollupRepository.findPriceRangesInRange(start, end)
+             : cryptoRepository.findPriceRangesInRange(start, end);
+    }
+    long startMillis = toEpochMilliRoundedUp(start);
+    long endMillis = toEpochMilliRoundedUp(end);
+    return stream(cryptoSeriesStore.findAll())
+        .map(series -> {
+          int from = series.indexOf(startMillis);
+          int to = series.indexOf(endMillis);
+          return from < to
+                 ? new CryptoPriceRange(series.getName(), series.min(from, to), series.max(from, to))
+                 : null;
+        })
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  private CryptoStatsResponse getCryptoStatsForRange(String crypto, ZonedDateTime start, ZonedDateTime end) {
+    return join(getCryptoStatsForRange(crypto, start, end, DIRECT));
+  }
+
+  /*
+    oldest, newest and min/max price don't depend on each other, so their queries are
+    started at the same time on the executor, rows with min and max price are queried
+    when min and max are known. no thread waits for a query of the same request, so with
+    the stats executor a request only uses a thread while one of its queries runs
+
+    with DIRECT executor it is the same sequence of queries on the caller's thread
+    (in the caller's transaction)
+  */
+  private CompletableFuture<CryptoStatsResponse> getCryptoStatsForRange(String crypto, ZonedDateTime start,
+                                                                        ZonedDateTime end, Executor executor) {
+    var series = cryptoSeriesStore.isReady() ? cryptoSeriesStore.find(crypto) : Optional.<CryptoSeries>empty();
+    if (series.isPresent()) {
+      return CompletableFuture.completedFuture(getCryptoStatsForRange(series.get(), start, end));
+    }
+
+    var id = findNameId(crypto);
+    var oldest = CompletableFuture.supplyAsync(
+        () -> first(cryptoRepository.findPricePointsInRange(id, start, end, OLDEST)), executor);
+    var newest = CompletableFuture.supplyAsync(
+        () -> first(cryptoRepository.findPricePointsInRange(id, start, end, NEWEST)), executor);
     /*
-      sort values with comparator sorts values in descending order according to price
+      min and max price are taken from rollups (if they are enabled), then we only select
+      rows with these prices, at most stats.ties.limit of them
     */
-    normalizedPrices.sort((x, y) -> {
-      if (x.getPrice() == y.getPrice()) {
-        return 0;
+    var priceRange = CompletableFuture.supplyAsync(
+        () -> rollupsEnabled
+              ? cryptoRollupRepository.findPriceRangeInRange(id, start, end)
+              : cryptoRepository.findPriceRangeInRange(id, start, end), executor);
+    var minPrice = priceRange.thenCompose(range -> range.isEmpty()
+                                                   ? NO_PRICES
+                                                   : findPricePoints(id, range.get().getMin(), start, end, executor));
+    var maxPrice = priceRange.thenCompose(range -> range.isEmpty()
+                                                   ? NO_PRICES
+                                                   : findPricePoints(id, range.get().getMax(), start, end, executor));
+    return CompletableFuture.allOf(oldest, newest, minPrice, maxPrice).thenApply(
+        done -> new CryptoStatsResponse(crypto, oldest.join(), newest.join(),
+                                        minPrice.join().getPoints(), maxPrice.join().getPoints(),
+                                        minPrice.join().getCount(), maxPrice.join().getCount()));
+  }
+
+  private CompletableFuture<PricePoints> findPricePoints(Long id, double price, ZonedDateTime start,
+                                                         ZonedDateTime end, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      var ties = PageRequest.of(0, tiesLimit, Sort.by("timestamp"));
+      var points = cryptoRepository.findPricePointsByPriceInRange(id, price, start, end, ties);
+      return new PricePoints(points, countTies(id, price, start, end, points));
+    }, executor);
+  }
+
+  // rows with min or max price (at most stats.ties.limit) and the number of all of them
+  @Getter
+  @AllArgsConstructor
+  private static class PricePoints {
+    private final List<CryptoPricePoint> points;
+    private final long count;
+  }
+
+  /*
+    exceptions of the queries are thrown as they are, as if they were called directly
+  */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
-      return x.getPrice() > y.getPrice() ? -1 : 1;
-    });
-    return normalizedPrices;
+      throw e;
+    }
   }
 
-  private CryptoStatsResponse getCryptoStatsForRange(String crypto, ZonedDateTime start, ZonedDateTime end) {
-    var cryptoNameEntity = cryptoNamesRepository.findByName(crypto).orElseThrow(
-        CryptoNotSupportedException::new);
-    var oldest = cryptoRepository
-        .findOldestInRange(cryptoNameEntity.getId(), start, end).orElse(null);
-    var newest = cryptoRepository
-        .findNewestInRange(cryptoNameEntity.getId(), start, end).orElse(null);
-    var minPrice = cryptoRepository
-        .findMinPriceInRange(cryptoNameEntity.getId(), start, end);
-    var maxPrice = cryptoRepository
-        .findMaxPriceInRange(cryptoNameEntity.getId(), start, end);
-    return new CryptoStatsResponse(cryptoNameEntity.getName(), oldest, newest, minPrice, maxPrice);
+  /*
+    if the list is not full, it has all rows with this price, otherwise we have to count them
+  */
+  private long countTies(Long id, double price, ZonedDateTime start, ZonedDateTime end,
+                         List<CryptoPricePoint> ties) {
+    return ties.size() < tiesLimit
+           ? ties.size()
+           : cryptoRepository.countByPriceInRange(id, price, start, end);
+  }
+
+  private static CryptoPricePoint first(List<CryptoPricePoint> points) {
+    return points.isEmpty() ? null : points.get(0);
+  }
+
+  /*
+    the same stats as above but from prices in memory, index of the start and the end of the range
+    is found with binary search and only prices between them are checked
+  */
+  private CryptoStatsResponse getCryptoStatsForRange(CryptoSeries series, ZonedDateTime start, ZonedDateTime end) {
+    int from = series.indexOf(toEpochMilliRoundedUp(start));
+    int to = series.indexOf(toEpochMilliRoundedUp(end));
+    if (from >= to) {
+      return new CryptoStatsResponse(series.getName(), null, null, List.of(), List.of(), 0, 0);
+    }
+
+    var minIndexes = series.indexesOf(series.min(from, to), from, to);
+    var maxIndexes = series.indexesOf(series.max(from, to), from, to);
+    return new CryptoStatsResponse(series.getName(),
+                                   toPricePoint(series, from),
+                                   toPricePoint(series, to - 1),
+                                   toPricePoints(series, minIndexes),
+                                   toPricePoints(series, maxIndexes),
+                                   minIndexes.length,
+                                   maxIndexes.length);
+  }
+
+  // indexes are in time order, so these are the first ones, the same as in the queries
+  private List<CryptoPricePoint> toPricePoints(CryptoSeries series, int[] indexes) {
+    var points = new ArrayList<CryptoPricePoint>(Math.min(indexes.length, tiesLimit));
+    for (int i = 0; i < indexes.length && i < tiesLimit; i++) {
+      points.add(toPricePoint(series, indexes[i]));
+    }
+    return points;
+  }
+
+  private CryptoPricePoint toPricePoint(CryptoSeries series, int i) {
+    var timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(series.getTimestamp(i)),
+                                            ZoneId.systemDefault());
+    return new CryptoPricePoint(timestamp, series.getPrice(i));
+  }
+
+  /*
+    prices in memory have timestamps in milliseconds, but range may have nanoseconds
+    (end of the day is 23:59:59.999999999), so it is rounded up to keep the same
+    >= start and < end comparison as in the queries
+  */
+  private static long toEpochMilliRoundedUp(ZonedDateTime time) {
+    var instant = time.toInstant();
+    return instant.getNano() % 1_000_000 == 0 ? instant.toEpochMilli() : instant.toEpochMilli() + 1;
   }
 
   LocalDate parseStringToDate(String date) {
-    var parser = DateTimeFormatter.ofPattern(datePattern);
-    var parsed = LocalDate.parse(date, parser);
-    return parsed;
+    return stageMetrics.time("parse-date", () -> {
+      var parser = DateTimeFormatter.ofPattern(datePattern);
+      var parsed = LocalDate.parse(date, parser);
+      return parsed;
+    });
   }
 
   public List<CryptoPrice> getNormalizedPricesForMonth(MonthRequest monthReq) {
+    return getNormalizedPricesForMonth(monthReq, Integer.MAX_VALUE);
+  }
+
+  public List<CryptoPrice> getNormalizedPricesForMonth(MonthRequest monthReq, int limit) {
     if (monthReq.getMonths() == 0) {
       throw new IncorrectDaysOrMonthsValueException();
     }
     var date = parseStringToDate(monthReq.getStart());
     var range = getStartAndEndForMonths(date, monthReq.getMonths());
-    return getNormalizedPricesDescending(range.getStart(), range.getEnd());
+    return rankDescending(getNormalizedPrices(range), limit);
   }
 
   public CryptoStatsResponse getCryptoStatsForMonth(String crypto, MonthRequest monthReq) {
@@ -293,7 +364,136 @@ public class CryptoInvestmentImpl implements CryptoInvestment {
     }
     var date = parseStringToDate(monthReq.getStart());
     var range = getStartAndEndForMonths(date, monthReq.getMonths());
-    return getCryptoStatsForRange(crypto, range.getStart(), range.getEnd());
+    return getCryptoStats(crypto, range);
+  }
+
+  /*
+    the same stats, but the queries run on the stats executor (see StatsExecutorConfig),
+    only the crypto name is looked up on the caller's thread, so unknown crypto
+    or wrong month is thrown right away
+  */
+  @Override
+  public CompletableFuture<CryptoStatsResponse> getCryptoStatsForMonthAsync(String crypto, MonthRequest monthReq) {
+    if (monthReq.getMonths() == 0) {
+      throw new IncorrectDaysOrMonthsValueException();
+    }
+    var date = parseStringToDate(monthReq.getStart());
+    var range = getStartAndEndForMonths(date, monthReq.getMonths());
+    return stageMetrics.timeAsync("crypto-stats", crypto, () -> cryptoStatsCache.getCryptoStatsAsync(
+        crypto, range, key -> getCryptoStatsForRange(crypto, key.getStart(), key.getEnd(), statsExecutor)));
+  }
+
+  private List<CryptoPrice> getNormalizedPrices(Range range) {
+    return stageMetrics.time("normalized-prices", () -> cryptoStatsCache.getNormalizedPrices(
+        range, key -> findNormalizedPrices(key.getStart(), key.getEnd())));
+  }
+
+  private CryptoStatsResponse getCryptoStats(String crypto, Range range) {
+    return stageMetrics.time("crypto-stats", crypto, () -> cryptoStatsCache.getCryptoStats(
+        crypto, range, key -> getCryptoStatsForRange(crypto, key.getStart(), key.getEnd())));
+  }
+
+  /*
+    every item is checked first (crypto, start, months or days), so nothing is queried
+    for a wrong request. then the same ranges of the same crypto are calculated only once
+    and every result goes through the cache, like a single request
+
+    ranges of one crypto which overlap each other are merged to segments. if the prices are
+    not in memory and a segment has more ranges, prices of the whole segment are read once
+    (one index range scan instead of queries for every range) and all its ranges are
+    calculated from them in memory. a range which doesn't overlap with any other one
+    is calculated as a single request (with rollups)
+  */
+  @Override
+  public List<CryptoStatsResponse> getCryptoStatsBatch(List<BatchStatsItem> items) {
+    var ranges = new ArrayList<Range>(items.size());
+    var nameIds = new HashMap<String, Long>();
+    var rangesByCrypto = new HashMap<String, Set<Range>>();
+    for (var item : items) {
+      var range = toRange(item);
+      ranges.add(range);
+      nameIds.computeIfAbsent(item.getCrypto(), this::findNameId);
+      rangesByCrypto.computeIfAbsent(item.getCrypto(), crypto -> new HashSet<>()).add(range);
+    }
+
+    var stats = new HashMap<String, Map<Range, CryptoStatsResponse>>();
+    rangesByCrypto.forEach((crypto, cryptoRanges) -> {
+      var sorted = new ArrayList<>(cryptoRanges);
+      sorted.sort(Comparator.comparing(Range::getStart));
+      stats.put(crypto, getCryptoStatsForRanges(crypto, nameIds.get(crypto), sorted));
+    });
+
+    var results = new ArrayList<CryptoStatsResponse>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      results.add(stats.get(items.get(i).getCrypto()).get(ranges.get(i)));
+    }
+    return results;
+  }
+
+  // names are checked in memory (see CryptoNameDictionary), unknown cryptos don't go to the database
+  private long findNameId(String crypto) {
+    return cryptoNameDictionary.find(crypto).orElseThrow(CryptoNotSupportedException::new).getId();
+  }
+
+  private Range toRange(BatchStatsItem item) {
+    if ((item.getMonths() == 0) == (item.getDays() == 0)) {
+      throw new IncorrectDaysOrMonthsValueException();
+    }
+    var date = parseStringToDate(item.getStart());
+    return item.getMonths() != 0
+           ? getStartAndEndForMonths(date, item.getMonths())
+           : getStartAndEndForDays(date, item.getDays());
+  }
+
+  // ranges are sorted by start
+  private Map<Range, CryptoStatsResponse> getCryptoStatsForRanges(String crypto, long nameId, List<Range> ranges) {
+    var stats = new HashMap<Range, CryptoStatsResponse>();
+    boolean inMemory = cryptoSeriesStore.isReady() && cryptoSeriesStore.find(crypto).isPresent();
+    int from = 0;
+    while (from < ranges.size()) {
+      var segmentEnd = ranges.get(from).getEnd();
+      int to = from + 1;
+      while (to < ranges.size() && ranges.get(to).getStart().isBefore(segmentEnd)) {
+        if (ranges.get(to).getEnd().isAfter(segmentEnd)) {
+          segmentEnd = ranges.get(to).getEnd();
+        }
+        to++;
+      }
+
+      var segment = ranges.subList(from, to);
+      if (inMemory || segment.size() == 1) {
+        segment.forEach(range -> stats.put(range, getCryptoStats(crypto, range)));
+      } else {
+        var scan = new SegmentScan(crypto, nameId, segment.get(0).getStart(), segmentEnd);
+        segment.forEach(range -> stats.put(range, cryptoStatsCache.getCryptoStats(
+            crypto, range, key -> getCryptoStatsForRange(scan.getSeries(), key.getStart(), key.getEnd()))));
+      }
+      from = to;
+    }
+    return stats;
+  }
+
+  /*
+    prices of a crypto in the segment, they are read only if some range of the segment
+    is not in the cache
+  */
+  @RequiredArgsConstructor
+  private class SegmentScan {
+    private final String crypto;
+    private final long nameId;
+    private final ZonedDateTime start;
+    private final ZonedDateTime end;
+    private CryptoSeries series;
+
+    CryptoSeries getSeries() {
+      if (series == null) {
+        var builder = new CryptoSeries.Builder(crypto);
+        cryptoSeriesRepository.findPricesByNameIdInRange(nameId, toEpochMilliRoundedUp(start),
+                                                         toEpochMilliRoundedUp(end), builder::add);
+        series = builder.build();
+      }
+      return series;
+    }
   }
 
   /*
@@ -309,7 +509,7 @@ public class CryptoInvestmentImpl implements CryptoInvestment {
 
     at the end we choose min date as the start and max date as the end
   */
-  private Range getStartAndEndForDays(LocalDate date, int days) {
+  Range getStartAndEndForDays(LocalDate date, int days) {
     /*
       date and number of days, we construct the range which we want data from
     */
@@ -333,18 +533,149 @@ public class CryptoInvestmentImpl implements CryptoInvestment {
     }
     var date = parseStringToDate(dayReq.getStart());
     var range = getStartAndEndForDays(date, dayReq.getDays());
-    List<CryptoPrice> normalizedPrices = getNormalizedPricesDescending(range.getStart(), range.getEnd());
+    var maxNormalized = findMaxNormalizedOfDay(range);
+    if (maxNormalized.isPresent()) {
+      return maxNormalized.get();
+    }
+    List<CryptoPrice> normalizedPrices = rankDescending(getNormalizedPrices(range), 1);
     if (normalizedPrices.isEmpty()) {
       log.error("No cryptos found for day {}", dayReq.getStart());
       return new CryptoPrice(null, -1);
     }
 
     /*
-      we get the normalized prices sorted in descending order,
+      only the highest normalized price is selected (without sorting the others),
       so we can just return the 0th element
     */
 
     return normalizedPrices.get(0);
   }
 
+  /*
+    a whole calendar day (UTC) is looked up in the normalized prices of days, which are
+    refreshed together with rollups on import. other ranges and days without normalized
+    prices (nothing imported yet) are calculated from the prices
+  */
+  private Optional<CryptoPrice> findMaxNormalizedOfDay(Range range) {
+    var start = range.getStart().withZoneSameInstant(ZoneOffset.UTC);
+    var end = range.getEnd().withZoneSameInstant(ZoneOffset.UTC);
+    if (!rollupsEnabled || !start.truncatedTo(ChronoUnit.DAYS).equals(start) || !end.equals(start.plusDays(1))) {
+      return Optional.empty();
+    }
+    return stageMetrics.time("max-normalized", () -> cryptoRollupRepository.findMaxNormalized(start.toLocalDate()));
+  }
+
+  /*
+    the span is split into steps, every step is the end of a window which is `window` steps
+    long (so windows overlap when it is more than 1), the last step is cut at the end of the span.
+    instead of min and max for every window and crypto (like getMaxNormalizedCrypto for every
+    day) prices of every crypto are read once, from the first window start to the end, and
+    RollingNormalizedRange keeps min and max of the current window while it moves
+  */
+  @Override
+  public List<RollingWindow> getRollingNormalizedPrices(RollingRequest rollingReq) {
+    if (rollingReq.getDays() == 0) {
+      throw new IncorrectDaysOrMonthsValueException();
+    }
+    var date = parseStringToDate(rollingReq.getStart());
+    var span = getStartAndEndForDays(date, rollingReq.getDays());
+    /*
+      for negative days the span is from and to the end of a day (23:59:59.999999999), it is
+      moved to the next midnight, so steps are whole days, it is still the same range of prices
+      (timestamps are in milliseconds, see toEpochMilliRoundedUp)
+    */
+    if (rollingReq.getDays() < 0) {
+      span = new Range(span.getStart().plusNanos(1), span.getEnd().plusNanos(1));
+    }
+    var windows = getRollingWindows(span, rollingReq.getStep().getUnit(), rollingReq.getWindow());
+    var starts = new long[windows.size()];
+    var ends = new long[windows.size()];
+    for (int i = 0; i < windows.size(); i++) {
+      starts[i] = toEpochMilliRoundedUp(windows.get(i).getStart());
+      ends[i] = toEpochMilliRoundedUp(windows.get(i).getEnd());
+    }
+
+    var normalizedPrices = new ArrayList<List<CryptoPrice>>(windows.size());
+    windows.forEach(window -> normalizedPrices.add(new ArrayList<>()));
+    if (cryptoSeriesStore.isReady()) {
+      cryptoSeriesStore.findAll().forEach(series -> {
+        var rolling = new RollingNormalizedRange(starts, ends);
+        int to = series.indexOf(ends[ends.length - 1]);
+        for (int i = series.indexOf(starts[0]); i < to; i++) {
+          rolling.accept(series.getTimestamp(i), series.getPrice(i));
+        }
+        addNormalizedPrices(series.getName(), rolling.finish(), normalizedPrices);
+      });
+    } else {
+      cryptoNameDictionary.findAll().forEach(name -> {
+        var rolling = new RollingNormalizedRange(starts, ends);
+        cryptoSeriesRepository.findPricesByNameIdInRange(name.getId(), starts[0], ends[ends.length - 1],
+                                                         rolling::accept);
+        addNormalizedPrices(name.getName(), rolling.finish(), normalizedPrices);
+      });
+    }
+
+    var rollingWindows = new ArrayList<RollingWindow>(windows.size());
+    for (int i = 0; i < windows.size(); i++) {
+      sortDescending(normalizedPrices.get(i));
+      var window = windows.get(i);
+      rollingWindows.add(new RollingWindow(window.getStart(), window.getEnd(), normalizedPrices.get(i)));
+    }
+    return rollingWindows;
+  }
+
+  private List<Range> getRollingWindows(Range span, ChronoUnit unit, int windowSteps) {
+    var windows = new ArrayList<Range>();
+    var stepStart = span.getStart();
+    while (stepStart.isBefore(span.getEnd())) {
+      if (windows.size() == rollingMaxSteps) {
+        throw new IncorrectRollingStepsException(rollingMaxSteps);
+      }
+      var stepEnd = stepStart.plus(1, unit);
+      var end = stepEnd.isBefore(span.getEnd()) ? stepEnd : span.getEnd();
+      windows.add(new Range(end.minus(windowSteps, unit), end));
+      stepStart = stepEnd;
+    }
+    return windows;
+  }
+
+  // windows without prices (or with min price 0) are NaN, the crypto is left out of them
+  private static void addNormalizedPrices(String crypto, double[] normalized,
+                                          List<List<CryptoPrice>> normalizedPrices) {
+    for (int i = 0; i < normalized.length; i++) {
+      if (!Double.isNaN(normalized[i])) {
+        normalizedPrices.get(i).add(new CryptoPrice(crypto, normalized[i]));
+      }
+    }
+  }
+
+  /*
+    request is checked here (days, date, every crypto is known), so errors are returned
+    before anything is written. the prices are read later, when the response is written,
+    crypto after crypto, each of them from the database cursor (see CryptoSeriesRepository)
+  */
+  @Override
+  public StreamingResponseBody exportPrices(List<String> cryptos, DayRequest dayReq, ExportFormat format) {
+    if (dayReq.getDays() == 0) {
+      throw new IncorrectDaysOrMonthsValueException();
+    }
+    var date = parseStringToDate(dayReq.getStart());
+    var range = getStartAndEndForDays(date, dayReq.getDays());
+    var nameIds = new ArrayList<Long>(cryptos.size());
+    for (var crypto : cryptos) {
+      nameIds.add(findNameId(crypto));
+    }
+    long from = toEpochMilliRoundedUp(range.getStart());
+    long to = toEpochMilliRoundedUp(range.getEnd());
+
+    return output -> {
+      var writer = new PriceExportWriter(format, output);
+      writer.start();
+      for (int i = 0; i < cryptos.size(); i++) {
+        writer.startCrypto(cryptos.get(i));
+        cryptoSeriesRepository.findPricesByNameIdInRange(nameIds.get(i), from, to, writer);
+      }
+      writer.finish();
+    };
+  }
 }
@@ -0,0 +1,154 @@
+package com.epam.cryptoinvestment.service.impl;
+
+import com.epam.cryptoinvestment.csv.PriceCsvParser;
+import com.epam.cryptoinvestment.csv.PriceFile;
+import com.epam.cryptoinvestment.csv.PriceRowHandler;
+import com.epam.cryptoinvestment.entities.ImportedFileEntity;
+import com.epam.cryptoinvestment.metrics.StageMetrics;
+import com.epam.cryptoinvestment.model.CryptoPriceBatch;
+import com.epam.cryptoinvestment.model.ImportedPrices;
+import com.epam.cryptoinvestment.repository.CryptoBulkRepository;
+import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
+import com.epam.cryptoinvestment.store.CryptoNameDictionary;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/*
+  imports data from one csv file, every file is imported in its own transaction
+  so a failure in one file doesn't roll back the files which are imported next to it
+*/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CsvFileImporter {
+
+  private static final long PROGRESS_REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+  private final CryptoNameDictionary cryptoNameDictionary;
+  private final CryptoBulkRepository cryptoBulkRepository;
+  private final ImportedFilesRepository importedFilesRepository;
+  private final StageMetrics stageMetrics;
+  @Value("${import.batch.size}")
+  private int importBatchSize;
+
+  /*
+    we get the file, it represents one of the csv files in the prices' directory
+    PriceCsvParser reads it (memory mapped if the file is on the file system) and gives
+    us every row, the first row with names of columns and corrupted lines are skipped
+    for every row we check if CryptoName exists, if it doesn't we create it
+    then values are added to the batch, when the batch is full
+    it is sent to the database in one round trip (see CryptoBulkRepository)
+    rows which are already in the database (same timestamp and crypto name) are skipped
+    by the database itself, so there won't be duplicated data, with updatePrices (the file
+    has changed since it was imported or its last line was not finished) their prices
+    are updated instead
+
+    the file is read from the end of the last import (importedOffset of the imported file),
+    after the import it is moved to the end of the last complete line and the checksum of
+    the file up to it is saved, so the next import knows if this part has changed
+
+    returns the number of rows which were read from the file and which timestamps they cover
+  */
+  @Transactional
+  public ImportedPrices importFile(ImportedFileEntity importedFile, PriceFile file, boolean updatePrices)
+      throws IOException {
+    long startedAt = System.nanoTime();
+    var name = importedFile.getName();
+    long size = file.size();
+    var rows = new FileRows(name, updatePrices);
+    long end = file.parse(new PriceCsvParser(), importedFile.getImportedOffset(), rows);
+    rows.flush();
+    importedFile.setSize(size);
+    importedFile.setImportedOffset(end);
+    importedFile.setChecksum(file.checksum(end));
+
+    var imported = rows.imported;
+    long nanos = System.nanoTime() - startedAt;
+    stageMetrics.fileImported(nanos, imported.getRows(), rows.invalidLines);
+    double seconds = Math.max(nanos, 1) / 1_000_000_000.0;
+    log.info("File {}: {} rows imported in {} s ({} rows/sec)",
+             name, imported.getRows(), String.format("%.3f", seconds),
+             String.format("%.0f", imported.getRows() / seconds));
+    return imported;
+  }
+
+  /*
+    rows of one file on their way to the database
+  */
+  private class FileRows implements PriceRowHandler {
+
+    private final String name;
+    private final boolean updatePrices;
+    /*
+      ids of the names in this file, every name is looked up once in CryptoNameDictionary
+      (or created), the dictionary gets new names after the import is committed
+    */
+    private final Map<String, Long> cryptoNameToId = new HashMap<>();
+    private final CryptoPriceBatch batch = new CryptoPriceBatch(importBatchSize);
+    private final ImportedPrices imported = new ImportedPrices();
+    private long lastProgressReport = System.nanoTime();
+    private long invalidLines;
+
+    FileRows(String name, boolean updatePrices) {
+      this.name = name;
+      this.updatePrices = updatePrices;
+    }
+
+    @Override
+    public void onRow(long timestamp, String cryptoName, double price) {
+      /*
+        if we don't have this crypto name in the database we save it
+        this check provides us with future extension possibility
+        if there is a new file added with new crypto name it will be seamlessly added
+        and after this we will be able to provide info about this crypto too
+      */
+      var cryptoNameId = cryptoNameToId.get(cryptoName);
+      if (cryptoNameId == null) {
+        cryptoNameId = cryptoNameDictionary.find(cryptoName)
+                                           .map(CryptoNameDictionary.Entry::getId)
+                                           .orElseGet(() -> cryptoBulkRepository.findOrCreateCryptoName(cryptoName));
+        cryptoNameToId.put(cryptoName, cryptoNameId);
+      }
+
+      batch.add(timestamp, cryptoNameId, price);
+      imported.add(cryptoName, timestamp);
+
+      if (batch.isFull()) {
+        flush();
+
+        // report progress, so it can be seen in imported_files while the file is being imported
+        if (System.nanoTime() - lastProgressReport > PROGRESS_REPORT_INTERVAL_NANOS) {
+          importedFilesRepository.updateRowsImported(name, imported.getRows());
+          lastProgressReport = System.nanoTime();
+        }
+      }
+    }
+
+    /*
+      while reading the file if there is an error on some line I still continue to read
+      because maybe there is some other valid data. I think for this application it is
+      more important to get as many records as possible even if the file is corrupted
+      somewhere, so if there is some exception we still continue reading
+    */
+    @Override
+    public void onInvalidLine(long lineNumber) {
+      invalidLines++;
+      log.error("There was an error on line {} in file {}, skipping line", lineNumber, name);
+    }
+
+    void flush() {
+      if (updatePrices) {
+        cryptoBulkRepository.insertOrUpdatePrices(batch);
+      } else {
+        cryptoBulkRepository.insertIgnoringDuplicates(batch);
+      }
+      batch.clear();
+    }
+  }
+}
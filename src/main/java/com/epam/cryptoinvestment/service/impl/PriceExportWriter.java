@@ -0,0 +1,80 @@
+package com.epam.cryptoinvestment.service.impl;
+
+import com.epam.cryptoinvestment.model.ExportFormat;
+import com.epam.cryptoinvestment.repository.CryptoSeriesRepository.PriceConsumer;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+  writes exported prices row by row in the requested format, rows are buffered and sent
+  to the client whenever the buffer is full (chunked response), so memory doesn't depend
+  on the number of rows. when the client is slow writing blocks and so does reading from
+  the database cursor
+
+  it is PriceConsumer for CryptoSeriesRepository, which can't throw IOException,
+  so a failed write (client has disconnected) is thrown as UncheckedIOException
+  and it stops the query
+*/
+class PriceExportWriter implements PriceConsumer {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String CSV_HEADER = "timestamp,symbol,price\n";
+
+  private final ExportFormat format;
+  private final Writer writer;
+  private String symbol;
+  private String ndjsonPrefix;
+
+  PriceExportWriter(ExportFormat format, OutputStream output) {
+    this.format = format;
+    this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  void start() throws IOException {
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+    }
+  }
+
+  /*
+    following rows belong to this crypto, for ndjson the beginning of the line
+    (with escaped name) is the same for all of them
+  */
+  void startCrypto(String crypto) {
+    symbol = crypto;
+    ndjsonPrefix = "{\"symbol\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(crypto))
+                   + "\",\"timestamp\":";
+  }
+
+  @Override
+  public void accept(long timestamp, double price) {
+    try {
+      if (format == ExportFormat.CSV) {
+        writer.write(Long.toString(timestamp));
+        writer.write(',');
+        writer.write(symbol);
+        writer.write(',');
+        writer.write(Double.toString(price));
+        writer.write('\n');
+      } else {
+        writer.write(ndjsonPrefix);
+        writer.write(Long.toString(timestamp));
+        writer.write(",\"price\":");
+        writer.write(Double.toString(price));
+        writer.write("}\n");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  void finish() throws IOException {
+    writer.flush();
+  }
+}
@@ -0,0 +1,343 @@
+package com.epam.cryptoinvestment.service.impl;
+
+import com.epam.cryptoinvestment.csv.PriceCsvParser;
+import com.epam.cryptoinvestment.csv.PriceFile;
+import com.epam.cryptoinvestment.csv.PriceMonths;
+import com.epam.cryptoinvestment.entities.ImportedFileEntity;
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.ingest.ImportProgress;
+import com.epam.cryptoinvestment.model.ImportStatus;
+import com.epam.cryptoinvestment.model.ImportedPrices;
+import com.epam.cryptoinvestment.repository.CryptoPartitionRepository;
+import com.epam.cryptoinvestment.repository.CryptoRollupRepository;
+import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
+import com.epam.cryptoinvestment.service.PricesImporter;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricesImporterImpl implements PricesImporter {
+
+  private final ImportedFilesRepository importedFilesRepository;
+  private final CsvFileImporter csvFileImporter;
+  private final CryptoRollupRepository cryptoRollupRepository;
+  private final CryptoPartitionRepository cryptoPartitionRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ImportProgress importProgress;
+  private final DataSource dataSource;
+  @Value("${prices.directory.path}")
+  private String pricesDirPath;
+  @Value("${import.threads}")
+  private int importThreads;
+  @Value("${prices.import.async}")
+  private boolean async;
+
+  /*
+    when the application is started we check if there is new data and import it.
+    it can't be done in @PostConstruct, import threads would wait for the bean factory
+    (to get the transaction manager) which is locked until this bean is created.
+    it goes before the other ApplicationReadyEvent listeners, so with prices.import.async=false
+    they already see the new data
+
+    with prices.import.async=true the import runs in the background and requests are served
+    in the meantime from what is already committed (every file is committed on its own).
+    until it is finished the application is not ready (see ImportHealthIndicator), progress is
+    on /actuator/import. if the application is stopped during the import, next time the import
+    continues from the files (and the parts of them) which are not imported yet
+  */
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onApplicationReady() {
+    if (!async) {
+      startupImport();
+      return;
+    }
+    var thread = new Thread(this::startupImport, "prices-startup-import");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void startupImport() {
+    try {
+      importAll();
+    } catch (Exception e) {
+      log.error("Startup import of prices failed", e);
+    } finally {
+      importProgress.ready();
+    }
+  }
+
+  /*
+    get all csv files from prices directory (some of them will already be imported)
+    and import data which is not imported yet from every file (see importFiles)
+  */
+  @Override
+  public void importAll() {
+    var classLoader = Thread.currentThread().getContextClassLoader();
+    var resource = Objects.requireNonNull(classLoader.getResourceAsStream(pricesDirPath));
+    var files = new LinkedHashMap<String, URL>();
+    new BufferedReader(new InputStreamReader(resource))
+        .lines()
+        .filter(file -> file.endsWith(".csv"))
+        .forEach(file -> files.put(file, classLoader.getResource(pricesDirPath + "/" + file)));
+    importFiles(files);
+  }
+
+  /*
+    files from the file system (see PricesDirectoryWatcher), they are kept in imported_files
+    table under their full path, so a watched file and a file from prices directory
+    with the same name don't take each other's place
+  */
+  @Override
+  public void importFiles(List<Path> paths) {
+    var files = new LinkedHashMap<String, URL>();
+    for (var path : paths) {
+      try {
+        files.put(path.toAbsolutePath().normalize().toString(), path.toUri().toURL());
+      } catch (MalformedURLException e) {
+        log.error("Can't import file: {}", path, e);
+      }
+    }
+    importFiles(files);
+  }
+
+  /*
+    files are imported in parallel on a fixed number of threads (import.threads),
+    each of them in its own transaction (see CsvFileImporter)
+    partitions for the months of the files are created before (see createPartitions),
+    we wait here until every file is finished, then monthly partitions are created for
+    rows which were still imported to months without partition, daily and monthly rollups are
+    recalculated for the imported ranges (only after the files are committed, so they
+    always see all the data) and PricesImportedEvent is published
+
+    startup import and the directory watcher can call it at the same time,
+    imports are done one after another, so the same file is never imported twice at once
+  */
+  private synchronized void importFiles(Map<String, URL> files) {
+    importProgress.started(files.size());
+    try {
+      var imported = importInParallel(files);
+      if (!imported.isEmpty()) {
+        int partitions = cryptoPartitionRepository.createPartitionsForDefaultRows();
+        if (partitions > 0) {
+          log.info("Created {} monthly partitions of cryptos table", partitions);
+        }
+        var importedRanges = imported.getRanges();
+        importedRanges.forEach(cryptoRollupRepository::refresh);
+        eventPublisher.publishEvent(new PricesImportedEvent(importedRanges));
+      }
+    } finally {
+      importProgress.finished();
+    }
+  }
+
+  private ImportedPrices importInParallel(Map<String, URL> files) {
+    var imported = new ImportedPrices();
+    if (files.isEmpty()) {
+      return imported;
+    }
+
+    var executor = Executors.newFixedThreadPool(importThreads(files.size()));
+    try {
+      List<Future<FileImport>> prepared = new ArrayList<>();
+      files.forEach((name, url) -> prepared.add(executor.submit(() -> prepare(name, url))));
+      var fileImports = new ArrayList<FileImport>();
+      var months = new TreeSet<LocalDate>();
+      for (var preparedImport : prepared) {
+        var fileImport = preparedImport.get();
+        if (fileImport != null) {
+          fileImports.add(fileImport);
+          months.addAll(fileImport.months);
+        }
+      }
+      createPartitions(months);
+
+      List<Future<ImportedPrices>> imports = new ArrayList<>();
+      fileImports.forEach(fileImport -> imports.add(executor.submit(() -> importFile(fileImport))));
+      for (var fileImport : imports) {
+        imported.addAll(fileImport.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Import of prices was interrupted");
+    } catch (ExecutionException e) {
+      log.error("Unexpected error while importing prices", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return imported;
+  }
+
+  /*
+    a file transaction may need a second connection for a moment (new crypto names are created
+    in their own transaction, see CryptoBulkRepository.findOrCreateCryptoName), so import threads
+    use at most half of the connection pool. with more of them every connection could be held
+    by a file transaction waiting for another one
+  */
+  private int importThreads(int files) {
+    int threads = Math.min(importThreads, files);
+    if (dataSource instanceof HikariDataSource) {
+      int poolSize = ((HikariDataSource) dataSource).getMaximumPoolSize();
+      if (threads > poolSize / 2) {
+        log.warn("import.threads {} limited to {}, half of the connection pool", importThreads, poolSize / 2);
+        threads = Math.max(1, poolSize / 2);
+      }
+    }
+    return threads;
+  }
+
+  /*
+    partitions are created before any file transaction is started (they need an exclusive
+    lock on cryptos), so the rows go straight to the partitions of their months instead of
+    being written to the default partition and moved from there after the import.
+    if it fails the rows still go to the default partition
+  */
+  private void createPartitions(Set<LocalDate> months) {
+    try {
+      int partitions = cryptoPartitionRepository.createPartitions(months);
+      if (partitions > 0) {
+        log.info("Created {} monthly partitions of cryptos table", partitions);
+      }
+    } catch (Exception e) {
+      log.error("Can't create partitions for months {}", months, e);
+    }
+  }
+
+  /*
+    file which has something to import and the months of its rows which are going to be imported
+  */
+  @RequiredArgsConstructor
+  private static class FileImport {
+    private final ImportedFileEntity importedFile;
+    private final PriceFile file;
+    private final boolean updatePrices;
+    private final Set<LocalDate> months;
+  }
+
+  /*
+    finds out what has to be imported from one file and reads the months of these rows,
+    returns null if there is nothing to import or the file can't be read (it is marked as FAILED).
+
+    files usually only grow (new prices are appended), so we remember where the import
+    ended and the checksum of the file up to there:
+    - if the checksum is the same and the size too, there is nothing new in the file
+    - if the checksum is the same, only the rest of the file is imported
+    - otherwise (new file or the imported part has changed) the whole file is imported,
+      for a changed file prices of the rows which are already in the database are updated
+      (rows which were removed from the file stay in the database)
+    - if the last imported line had no line break, it may have been only partly written then,
+      the import starts from its beginning and the prices of the rows which are already
+      in the database are updated too (4 becomes 4.5 when the rest of the line is written)
+    failed files are imported again next time from the end of the last successful import
+
+    reading the months is one more pass over the rows which are imported, it only parses them,
+    which is much cheaper than inserting them (and than writing them twice to move them
+    from the default partition)
+  */
+  private FileImport prepare(String name, URL url) {
+    var importedFile = importedFilesRepository.findByName(name)
+                                              .orElseGet(() -> new ImportedFileEntity(name));
+    try {
+      var file = new PriceFile(Objects.requireNonNull(url, name));
+      boolean sameImportedPart = importedFile.getChecksum() != null
+          && file.checksum(importedFile.getImportedOffset()) == importedFile.getChecksum();
+      if (sameImportedPart && importedFile.getStatus() == ImportStatus.IMPORTED
+          && file.size() == importedFile.getSize()) {
+        log.info("File {} already imported", name);
+        importProgress.fileSkipped();
+        return null;
+      }
+      boolean changed = !sameImportedPart && importedFile.getId() != null;
+      boolean unfinishedLastLine = sameImportedPart && importedFile.getImportedOffset() < importedFile.getSize();
+      if (!sameImportedPart) {
+        importedFile.setImportedOffset(0);
+        importedFile.setRowsImported(0);
+      }
+      var months = new PriceMonths();
+      file.parse(new PriceCsvParser(), importedFile.getImportedOffset(), months);
+      return new FileImport(importedFile, file, changed || unfinishedLastLine, months.getMonths());
+    } catch (Exception e) {
+      log.error("Error while reading file: {}", name, e);
+      failed(importedFile, e);
+      return null;
+    }
+  }
+
+  /*
+    imports one file and keeps track of its progress in imported_files table
+    first the file is marked as IN_PROGRESS, then in the end it becomes IMPORTED
+    or FAILED with the error message
+  */
+  private ImportedPrices importFile(FileImport fileImport) {
+    var importedFile = fileImport.importedFile;
+    var name = importedFile.getName();
+    long offset = importedFile.getImportedOffset();
+    long rowsBefore = importedFile.getRowsImported();
+    long size = importedFile.getSize();
+    var checksum = importedFile.getChecksum();
+    importedFile.setStatus(ImportStatus.IN_PROGRESS);
+    importedFile.setError(null);
+    importedFile.setStartedAt(ZonedDateTime.now(ZoneOffset.UTC));
+    importedFile.setFinishedAt(null);
+    importedFile = importedFilesRepository.save(importedFile);
+
+    try {
+      log.info("Importing {} from byte {}{}", name, offset,
+               fileImport.updatePrices ? ", prices of existing rows are updated" : "");
+      var imported = csvFileImporter.importFile(importedFile, fileImport.file, fileImport.updatePrices);
+      importedFile.setStatus(ImportStatus.IMPORTED);
+      importedFile.setRowsImported(rowsBefore + imported.getRows());
+      importedFile.setFinishedAt(ZonedDateTime.now(ZoneOffset.UTC));
+      importedFilesRepository.save(importedFile);
+      log.info("records from {} were added", name);
+      importProgress.fileImported(imported.getRows());
+      return imported;
+    } catch (Exception e) {
+      log.error("Error while importing data from file: {}", name, e);
+      // the import was rolled back, so the imported part is the same as before
+      importedFile.setImportedOffset(offset);
+      importedFile.setRowsImported(rowsBefore);
+      importedFile.setSize(size);
+      importedFile.setChecksum(checksum);
+      return failed(importedFile, e);
+    }
+  }
+
+  private ImportedPrices failed(ImportedFileEntity importedFile, Exception e) {
+    importedFile.setStatus(ImportStatus.FAILED);
+    importedFile.setError(e.getMessage());
+    importedFile.setFinishedAt(ZonedDateTime.now(ZoneOffset.UTC));
+    importedFilesRepository.save(importedFile);
+    importProgress.fileFailed();
+    return new ImportedPrices();
+  }
+}
@@ -0,0 +1,116 @@
+package com.epam.cryptoinvestment.store;
+
+import com.epam.cryptoinvestment.entities.CryptoNameEntity;
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.repository.CryptoNamesRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/*
+  every crypto name with its id in crypto_names and a dense index (0, 1, 2, ... in the order
+  the names were added), so names are checked and ids are found without a query and arrays
+  can be indexed by crypto instead of maps.
+
+  names are loaded when the bean is created and after an import, only if it has touched
+  a name which is not known yet (new crypto). names added to crypto_names by another instance
+  of the service are loaded every crypto-names.reload-interval-millis, a lookup of an unknown
+  name never goes to the database. names are never removed from crypto_names, so the index
+  of a name never changes. the dictionary is copied with the new names and swapped, readers
+  always see a complete one without locking
+*/
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoNameDictionary {
+
+  private final CryptoNamesRepository cryptoNamesRepository;
+
+  private volatile Names names = new Names(List.of(), Map.of());
+
+  public Optional<Entry> find(String name) {
+    return Optional.ofNullable(names.byName.get(name));
+  }
+
+  public Entry get(int index) {
+    return names.entries.get(index);
+  }
+
+  // in the order of their indexes
+  public List<Entry> findAll() {
+    return names.entries;
+  }
+
+  public int size() {
+    return names.entries.size();
+  }
+
+  @PostConstruct
+  public void load() {
+    addNew(cryptoNamesRepository.findAll());
+  }
+
+  @Scheduled(fixedDelayString = "${crypto-names.reload-interval-millis}",
+             initialDelayString = "${crypto-names.reload-interval-millis}")
+  public void reload() {
+    addNew(cryptoNamesRepository.findAll());
+  }
+
+  // before the other listeners, so they see the names of new cryptos
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onPricesImported(PricesImportedEvent event) {
+    var current = names;
+    if (!current.byName.keySet().containsAll(event.getImportedRanges().keySet())) {
+      addNew(cryptoNamesRepository.findAll());
+    }
+  }
+
+  /*
+    names which are not in the dictionary are added at the end in the order of their ids
+  */
+  private synchronized void addNew(List<CryptoNameEntity> entities) {
+    var current = names;
+    var added = new ArrayList<>(entities);
+    added.removeIf(entity -> current.byName.containsKey(entity.getName()));
+    if (added.isEmpty()) {
+      return;
+    }
+    added.sort(Comparator.comparing(CryptoNameEntity::getId));
+
+    var entries = new ArrayList<>(current.entries);
+    var byName = new HashMap<>(current.byName);
+    added.forEach(entity -> {
+      var entry = new Entry(entity.getName(), entity.getId(), entries.size());
+      entries.add(entry);
+      byName.put(entry.getName(), entry);
+    });
+    names = new Names(List.copyOf(entries), Map.copyOf(byName));
+    log.info("Crypto names: {} added, {} in total", added.size(), entries.size());
+  }
+
+  @Value
+  public static class Entry {
+    String name;
+    long id;
+    int index;
+  }
+
+  @Value
+  private static class Names {
+    List<Entry> entries;
+    Map<String, Entry> byName;
+  }
+}
@@ -0,0 +1,140 @@
+package com.epam.cryptoinvestment.store;
+
+import java.util.Arrays;
+
+/*
+  all prices of one crypto kept in memory as two primitive columns sorted by timestamp
+  (timestamps are epoch milliseconds), min and max price in any range are found with
+  RangeMinMaxIndex. prices of the series never change after it is published in
+  CryptoSeriesStore, when new data is imported a new series replaces the old one
+
+  ranges are [from, to) indexes, the same as [start, end) in the queries,
+  so the index of the start and the end of the time range can be found with binary search
+*/
+public class CryptoSeries {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final String name;
+  private final long[] timestamps;
+  private final double[] prices;
+  private final int size;
+  private final RangeMinMaxIndex index;
+
+  private CryptoSeries(String name, long[] timestamps, double[] prices, int size,
+                       RangeMinMaxIndex index) {
+    this.name = name;
+    this.timestamps = timestamps;
+    this.prices = prices;
+    this.size = size;
+    this.index = index;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getTimestamp(int i) {
+    return timestamps[i];
+  }
+
+  public double getPrice(int i) {
+    return prices[i];
+  }
+
+  public long getLastTimestamp() {
+    return size == 0 ? Long.MIN_VALUE : timestamps[size - 1];
+  }
+
+  /*
+    returns index of the first price with timestamp >= provided timestamp
+    (or size if every price is before it)
+  */
+  public int indexOf(long timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  public double min(int from, int to) {
+    return index.min(prices, from, to);
+  }
+
+  public double max(int from, int to) {
+    return index.max(prices, from, to);
+  }
+
+  /*
+    returns indexes of every price in range which is equal to the provided one,
+    min or max price may occur several times, the same as in findPricePointsByPriceInRange
+  */
+  public int[] indexesOf(double price, int from, int to) {
+    return index.indexesOf(prices, price, from, to);
+  }
+
+  /*
+    returns series with the new prices added at the end, they must be after the last price.
+    while arrays have free space they are shared with this series (it never reads beyond
+    its size, so it doesn't see new prices), otherwise they are copied to bigger ones.
+    because of sharing it should be called only on the latest series
+  */
+  CryptoSeries append(Builder newPrices) {
+    int newSize = size + newPrices.size;
+    var newTimestamps = timestamps;
+    var updatedPrices = prices;
+    if (newSize > timestamps.length) {
+      int capacity = Math.max(newSize, timestamps.length * 2);
+      newTimestamps = Arrays.copyOf(timestamps, capacity);
+      updatedPrices = Arrays.copyOf(prices, capacity);
+    }
+    System.arraycopy(newPrices.timestamps, 0, newTimestamps, size, newPrices.size);
+    System.arraycopy(newPrices.prices, 0, updatedPrices, size, newPrices.size);
+    return new CryptoSeries(name, newTimestamps, updatedPrices, newSize,
+                            index.append(updatedPrices, size, newSize));
+  }
+
+  /*
+    collects prices in timestamp order, arrays grow the same way as in ArrayList
+  */
+  public static class Builder {
+
+    private final String name;
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int size;
+
+    public Builder(String name) {
+      this.name = name;
+    }
+
+    public void add(long timestamp, double price) {
+      if (size == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, size * 2);
+        prices = Arrays.copyOf(prices, size * 2);
+      }
+      timestamps[size] = timestamp;
+      prices[size] = price;
+      size++;
+    }
+
+    public boolean isEmpty() {
+      return size == 0;
+    }
+
+    public CryptoSeries build() {
+      return new CryptoSeries(name, timestamps, prices, size, new RangeMinMaxIndex(prices, size));
+    }
+  }
+}
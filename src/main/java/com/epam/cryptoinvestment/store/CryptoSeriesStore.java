@@ -0,0 +1,125 @@
+package com.epam.cryptoinvestment.store;
+
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.repository.CryptoSeriesRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/*
+  optional in memory copy of the prices (prices.store.enabled), data changes only when
+  csv files are imported, so instead of querying database for every request we can
+  keep every crypto as CryptoSeries and answer from memory.
+
+  it is loaded when the application is ready and after every import only cryptos which
+  were touched by the import are updated. if everything imported is newer than the prices
+  in memory (daily appends) only the new prices are read and appended to the series,
+  otherwise the crypto is loaded again. series are kept in an array indexed by the dense
+  index of the crypto name (CryptoNameDictionary), they are replaced in a copy of the array
+  and the array itself is swapped, so readers never see half updated data.
+  until the store is loaded the service reads everything from database
+*/
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoSeriesStore {
+
+  private final CryptoNameDictionary cryptoNameDictionary;
+  private final CryptoSeriesRepository cryptoSeriesRepository;
+  @Value("${prices.store.enabled}")
+  private boolean enabled;
+
+  // series of every crypto at the index of its name in CryptoNameDictionary, null until it is loaded
+  private volatile CryptoSeries[] series = new CryptoSeries[0];
+  private volatile boolean ready;
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public Optional<CryptoSeries> find(String crypto) {
+    var current = series;
+    return cryptoNameDictionary.find(crypto)
+                               .filter(name -> name.getIndex() < current.length)
+                               .map(name -> current[name.getIndex()]);
+  }
+
+  // in the order of the indexes of their names
+  public List<CryptoSeries> findAll() {
+    return Arrays.stream(series).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!enabled) {
+      return;
+    }
+    load(cryptoNameDictionary.findAll());
+    ready = true;
+  }
+
+  /*
+    names of new cryptos are already in the dictionary, it gets the event first
+    (see CryptoNameDictionary.onPricesImported)
+  */
+  @EventListener
+  public void onPricesImported(PricesImportedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    update(event.getImportedRanges());
+  }
+
+  private synchronized void update(Map<String, Range> importedRanges) {
+    var updated = Arrays.copyOf(series, cryptoNameDictionary.size());
+    for (var imported : importedRanges.entrySet()) {
+      var crypto = imported.getKey();
+      var name = cryptoNameDictionary.find(crypto);
+      if (name.isEmpty()) {
+        log.warn("Crypto {} is not in the name dictionary, its prices are not updated in memory", crypto);
+        continue;
+      }
+      int index = name.get().getIndex();
+      if (index >= updated.length) {
+        updated = Arrays.copyOf(updated, index + 1);
+      }
+      var current = updated[index];
+      long importedFrom = imported.getValue().getStart().toInstant().toEpochMilli();
+      if (current == null || importedFrom <= current.getLastTimestamp()) {
+        updated[index] = loadSeries(crypto);
+        continue;
+      }
+      var newPrices = new CryptoSeries.Builder(crypto);
+      cryptoSeriesRepository.findPricesByNameFrom(crypto, importedFrom, newPrices::add);
+      if (!newPrices.isEmpty()) {
+        updated[index] = current.append(newPrices);
+      }
+    }
+    series = updated;
+  }
+
+  private synchronized void load(List<CryptoNameDictionary.Entry> names) {
+    long startedAt = System.nanoTime();
+    var updated = Arrays.copyOf(series, names.size());
+    names.forEach(name -> updated[name.getIndex()] = loadSeries(name.getName()));
+    series = updated;
+    log.info("Loaded {} cryptos to memory in {} ms",
+             names.size(), (System.nanoTime() - startedAt) / 1_000_000);
+  }
+
+  private CryptoSeries loadSeries(String crypto) {
+    var builder = new CryptoSeries.Builder(crypto);
+    cryptoSeriesRepository.findPricesByName(crypto, builder::add);
+    return builder.build();
+  }
+}
@@ -0,0 +1,183 @@
+package com.epam.cryptoinvestment.store;
+
+import java.util.Arrays;
+
+/*
+  index for min and max price in any range of CryptoSeries without checking every price in it
+
+  prices are split into blocks of BLOCK_SIZE and every block is a leaf of a segment tree,
+  every node keeps min and max of the blocks below it. range query uses the tree for the
+  blocks which are fully inside the range and checks only the prices in the two partial
+  blocks at the edges, so it costs O(log n + BLOCK_SIZE) instead of O(range length)
+
+  tree over blocks instead of prices keeps the memory small (two doubles per block)
+
+  when prices are appended only the nodes of the blocks at the end change, queries for
+  ranges before them never use these nodes, so the index can be updated in place while
+  older versions of the series are still being read
+*/
+class RangeMinMaxIndex {
+
+  static final int BLOCK_SIZE = 64;
+
+  // number of leaves is a power of two, node 1 is the root, leaves start at index leaves
+  private final int leaves;
+  private final double[] minTree;
+  private final double[] maxTree;
+
+  RangeMinMaxIndex(double[] prices, int size) {
+    this(prices, size, capacity(prices.length));
+  }
+
+  private RangeMinMaxIndex(double[] prices, int size, int leaves) {
+    this.leaves = leaves;
+    this.minTree = new double[leaves * 2];
+    this.maxTree = new double[leaves * 2];
+    Arrays.fill(minTree, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxTree, Double.NEGATIVE_INFINITY);
+    for (int i = 0; i < size; i++) {
+      int leaf = leaves + i / BLOCK_SIZE;
+      minTree[leaf] = Math.min(minTree[leaf], prices[i]);
+      maxTree[leaf] = Math.max(maxTree[leaf], prices[i]);
+    }
+    for (int node = leaves - 1; node > 0; node--) {
+      minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+      maxTree[node] = Math.max(maxTree[2 * node], maxTree[2 * node + 1]);
+    }
+  }
+
+  private static int capacity(int prices) {
+    int blocks = (prices + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    return blocks <= 1 ? 1 : Integer.highestOneBit(blocks - 1) << 1;
+  }
+
+  /*
+    adds prices from [from, to) to the index, returns this index if they fit in it,
+    otherwise a new bigger index is built
+  */
+  RangeMinMaxIndex append(double[] prices, int from, int to) {
+    if ((to + BLOCK_SIZE - 1) / BLOCK_SIZE > leaves) {
+      return new RangeMinMaxIndex(prices, to, capacity(prices.length));
+    }
+    for (int i = from; i < to; i++) {
+      int node = leaves + i / BLOCK_SIZE;
+      double price = prices[i];
+      while (node > 0 && (price < minTree[node] || price > maxTree[node])) {
+        minTree[node] = Math.min(minTree[node], price);
+        maxTree[node] = Math.max(maxTree[node], price);
+        node /= 2;
+      }
+    }
+    return this;
+  }
+
+  double min(double[] prices, int from, int to) {
+    double min = Double.POSITIVE_INFINITY;
+    int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int lastBlock = to / BLOCK_SIZE;
+    if (firstBlock >= lastBlock) {
+      for (int i = from; i < to; i++) {
+        min = Math.min(min, prices[i]);
+      }
+      return min;
+    }
+    for (int i = from; i < firstBlock * BLOCK_SIZE; i++) {
+      min = Math.min(min, prices[i]);
+    }
+    for (int i = lastBlock * BLOCK_SIZE; i < to; i++) {
+      min = Math.min(min, prices[i]);
+    }
+    for (int l = firstBlock + leaves, r = lastBlock + leaves; l < r; l /= 2, r /= 2) {
+      if ((l & 1) == 1) {
+        min = Math.min(min, minTree[l++]);
+      }
+      if ((r & 1) == 1) {
+        min = Math.min(min, minTree[--r]);
+      }
+    }
+    return min;
+  }
+
+  double max(double[] prices, int from, int to) {
+    double max = Double.NEGATIVE_INFINITY;
+    int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int lastBlock = to / BLOCK_SIZE;
+    if (firstBlock >= lastBlock) {
+      for (int i = from; i < to; i++) {
+        max = Math.max(max, prices[i]);
+      }
+      return max;
+    }
+    for (int i = from; i < firstBlock * BLOCK_SIZE; i++) {
+      max = Math.max(max, prices[i]);
+    }
+    for (int i = lastBlock * BLOCK_SIZE; i < to; i++) {
+      max = Math.max(max, prices[i]);
+    }
+    for (int l = firstBlock + leaves, r = lastBlock + leaves; l < r; l /= 2, r /= 2) {
+      if ((l & 1) == 1) {
+        max = Math.max(max, maxTree[l++]);
+      }
+      if ((r & 1) == 1) {
+        max = Math.max(max, maxTree[--r]);
+      }
+    }
+    return max;
+  }
+
+  /*
+    returns every index in [from, to) where price is equal to the provided one in increasing
+    order, subtrees which can't contain the price (it is not between their min and max)
+    are skipped, so for min or max price it costs O((ties + 1) * (log n + BLOCK_SIZE))
+  */
+  int[] indexesOf(double[] prices, double price, int from, int to) {
+    var indexes = new Indexes();
+    int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int lastBlock = to / BLOCK_SIZE;
+    if (firstBlock >= lastBlock) {
+      indexes.addEqual(prices, price, from, to);
+      return indexes.toArray();
+    }
+    indexes.addEqual(prices, price, from, firstBlock * BLOCK_SIZE);
+    collect(prices, price, 1, 0, leaves, firstBlock, lastBlock, indexes);
+    indexes.addEqual(prices, price, lastBlock * BLOCK_SIZE, to);
+    return indexes.toArray();
+  }
+
+  // node covers blocks [nodeFrom, nodeTo), only blocks in [firstBlock, lastBlock) are collected
+  private void collect(double[] prices, double price, int node, int nodeFrom, int nodeTo,
+                       int firstBlock, int lastBlock, Indexes indexes) {
+    if (nodeTo <= firstBlock || nodeFrom >= lastBlock
+        || price < minTree[node] || price > maxTree[node]) {
+      return;
+    }
+    if (node >= leaves) {
+      indexes.addEqual(prices, price, nodeFrom * BLOCK_SIZE, nodeTo * BLOCK_SIZE);
+      return;
+    }
+    int middle = (nodeFrom + nodeTo) / 2;
+    collect(prices, price, 2 * node, nodeFrom, middle, firstBlock, lastBlock, indexes);
+    collect(prices, price, 2 * node + 1, middle, nodeTo, firstBlock, lastBlock, indexes);
+  }
+
+  private static class Indexes {
+
+    private int[] indexes = new int[4];
+    private int count;
+
+    void addEqual(double[] prices, double price, int from, int to) {
+      for (int i = from; i < to; i++) {
+        if (prices[i] == price) {
+          if (count == indexes.length) {
+            indexes = Arrays.copyOf(indexes, count * 2);
+          }
+          indexes[count++] = i;
+        }
+      }
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(indexes, count);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+-- min, max and normalized price of every crypto per calendar day (UTC) taken from daily rollups,
+-- winner is the crypto with the highest normalized price of the day (the first name on ties, the
+-- same as the sorted normalized prices). days touched by an import are recalculated with the
+-- rollups (see CryptoRollupRepository), cryptos with min price 0 can't be normalized and are left out
+create table crypto_daily_normalized
+(
+    day date not null,
+    crypto_name_id bigint not null references crypto_names (id),
+    min double precision not null,
+    max double precision not null,
+    normalized double precision not null,
+    winner boolean not null,
+    primary key (day, crypto_name_id)
+);
+
+-- max normalized crypto of a day is one lookup in this index
+create unique index crypto_daily_normalized_winner_idx on crypto_daily_normalized (day) where winner;
+
+insert into crypto_daily_normalized
+select rollup.day,
+       rollup.crypto_name_id,
+       rollup.low,
+       rollup.high,
+       (rollup.high - rollup.low) / rollup.low,
+       row_number() over (partition by rollup.day
+                          order by (rollup.high - rollup.low) / rollup.low desc, name.name) = 1
+from crypto_daily_rollups rollup
+join crypto_names name on name.id = rollup.crypto_name_id
+where rollup.low <> 0;
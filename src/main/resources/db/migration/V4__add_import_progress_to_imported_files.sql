@@ -0,0 +1,6 @@
+alter table imported_files
+    add column status varchar not null default 'IMPORTED',
+    add column rows_imported bigint not null default 0,
+    add column error varchar,
+    add column started_at timestamp,
+    add column finished_at timestamp;
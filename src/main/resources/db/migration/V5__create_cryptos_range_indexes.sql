@@ -0,0 +1,7 @@
+-- every query in CryptoRepository filters by crypto first and then by timestamp range,
+-- the unique (timestamp, crypto_name_id) constraint index starts with the wrong column for that.
+-- oldest/newest are answered from the timestamp ordered index and min/max from the price
+-- ordered index, both of them include the other column, so they can be index-only scans
+create index cryptos_name_id_timestamp_idx on cryptos (crypto_name_id, timestamp) include (price);
+
+create index cryptos_name_id_price_idx on cryptos (crypto_name_id, price) include (timestamp);
@@ -0,0 +1,52 @@
+-- open/high/low/close prices and the first and the last timestamp of every crypto per day and
+-- per month, days and months are calendar days of the stored timestamps (stored in UTC, the same
+-- as ranges in the service). they are kept up to date by the importer (see CryptoRollupRepository)
+create table crypto_daily_rollups
+(
+    crypto_name_id bigint not null references crypto_names (id),
+    day date not null,
+    open double precision not null,
+    high double precision not null,
+    low double precision not null,
+    close double precision not null,
+    first_timestamp timestamp not null,
+    last_timestamp timestamp not null,
+    primary key (crypto_name_id, day)
+);
+
+create table crypto_monthly_rollups
+(
+    crypto_name_id bigint not null references crypto_names (id),
+    month date not null,
+    open double precision not null,
+    high double precision not null,
+    low double precision not null,
+    close double precision not null,
+    first_timestamp timestamp not null,
+    last_timestamp timestamp not null,
+    primary key (crypto_name_id, month)
+);
+
+insert into crypto_daily_rollups
+select crypto_name_id,
+       date_trunc('day', timestamp)::date,
+       (array_agg(price order by timestamp))[1],
+       max(price),
+       min(price),
+       (array_agg(price order by timestamp desc))[1],
+       min(timestamp),
+       max(timestamp)
+from cryptos
+group by crypto_name_id, date_trunc('day', timestamp)::date;
+
+insert into crypto_monthly_rollups
+select crypto_name_id,
+       date_trunc('month', day)::date,
+       (array_agg(open order by day))[1],
+       max(high),
+       min(low),
+       (array_agg(close order by day desc))[1],
+       min(first_timestamp),
+       max(last_timestamp)
+from crypto_daily_rollups
+group by crypto_name_id, date_trunc('month', day)::date;
@@ -0,0 +1,99 @@
+-- cryptos is range partitioned by month on timestamp, so range queries scan only the months they
+-- touch and vacuum/index maintenance works on one month at a time.
+-- primary key and unique constraints of a partitioned table must contain the partition key,
+-- so the primary key becomes (id, timestamp), id is still unique because it comes from a sequence
+create table cryptos_partitioned
+(
+    id bigint not null default nextval('cryptos_id_seq'),
+    crypto_name_id bigint constraint cryptos_crypto_name_id_fkey references crypto_names (id),
+    price double precision not null,
+    timestamp timestamp not null
+) partition by range (timestamp);
+
+-- rows of months which have no partition yet are kept here until
+-- move_cryptos_default_rows() moves them to their own partition (after every import)
+create table cryptos_default partition of cryptos_partitioned default;
+
+-- creates the partition of the month which starts on month_start if it doesn't exist
+create function create_cryptos_partition(month_start date) returns boolean as $$
+declare
+    partition_name text := 'cryptos_' || to_char(month_start, 'YYYY_MM');
+begin
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+    execute format('create table %I partition of cryptos for values from (%L) to (%L)',
+                   partition_name, month_start, month_start + interval '1 month');
+    return true;
+end;
+$$ language plpgsql;
+
+-- partition can't be created while the default partition has rows of its month,
+-- so for every month in the default partition its rows are copied to a new table, removed
+-- from the default partition and the table is attached as the partition of this month.
+-- returns the number of created partitions
+create function move_cryptos_default_rows() returns integer as $$
+declare
+    month_start date;
+    partition_name text;
+    created integer := 0;
+begin
+    for month_start in
+        select distinct date_trunc('month', timestamp)::date from cryptos_default order by 1
+    loop
+        partition_name := 'cryptos_' || to_char(month_start, 'YYYY_MM');
+        execute format('create table %I (like cryptos including defaults including constraints)',
+                       partition_name);
+        execute format('insert into %I select * from cryptos_default '
+                       'where timestamp >= %L and timestamp < %L',
+                       partition_name, month_start, month_start + interval '1 month');
+        delete from cryptos_default
+        where timestamp >= month_start and timestamp < month_start + interval '1 month';
+        execute format('alter table cryptos attach partition %I for values from (%L) to (%L)',
+                       partition_name, month_start, month_start + interval '1 month');
+        created := created + 1;
+    end loop;
+    return created;
+end;
+$$ language plpgsql;
+
+-- rows without timestamp can't be put to a month partition (the column is not null now) and
+-- no range query has ever returned them. they are not dropped silently: the migration fails
+-- with the number of such rows, they have to be fixed or deleted before it is run again
+do $$
+declare
+    without_timestamp bigint;
+begin
+    select count(*) into without_timestamp from cryptos where timestamp is null;
+    if without_timestamp > 0 then
+        raise exception '% rows of cryptos have no timestamp, fix or delete them before partitioning',
+            without_timestamp;
+    end if;
+end
+$$;
+
+-- existing rows go straight to the partitions of their months
+alter sequence cryptos_id_seq owned by none;
+alter table cryptos rename to cryptos_unpartitioned;
+alter table cryptos_partitioned rename to cryptos;
+
+select create_cryptos_partition(month::date)
+from (select distinct date_trunc('month', timestamp) as month
+      from cryptos_unpartitioned) months;
+
+insert into cryptos (id, crypto_name_id, price, timestamp)
+select id, crypto_name_id, price, timestamp
+from cryptos_unpartitioned;
+
+drop table cryptos_unpartitioned;
+
+alter sequence cryptos_id_seq owned by cryptos.id;
+
+alter table cryptos add constraint cryptos_pkey primary key (id, timestamp);
+
+alter table cryptos add constraint cryptos_unique_timestamp_name_id_constraint
+    unique (timestamp, crypto_name_id);
+
+create index cryptos_name_id_timestamp_idx on cryptos (crypto_name_id, timestamp) include (price);
+
+create index cryptos_name_id_price_idx on cryptos (crypto_name_id, price) include (timestamp);
@@ -0,0 +1,7 @@
+-- files are imported incrementally: imported_offset is the end of the last imported line,
+-- checksum is CRC32C of the file up to imported_offset and size is the size of the file when
+-- it was imported. files imported before have no checksum, so they are imported once again
+alter table imported_files
+    add column size bigint not null default 0,
+    add column imported_offset bigint not null default 0,
+    add column checksum bigint;
@@ -0,0 +1,7 @@
+-- token buckets of clients shared by every instance (see JdbcRateLimitBackend), full_at is
+-- the time in epoch microseconds (database clock) when the bucket of the client is full again
+create table client_rate_limits
+(
+    client varchar primary key,
+    full_at bigint not null
+);
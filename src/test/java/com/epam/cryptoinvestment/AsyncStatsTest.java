@@ -0,0 +1,113 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  stats executor has one thread and a queue for four tasks (a request starts at most three
+  queries at once), so it can be filled by the test. cache is disabled, so every request
+  runs the queries
+
+  errors which are thrown before the response is asynchronous (unknown crypto, full queue)
+  are returned by the async dispatch as well, rate limiter turns them to a failed response
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"stats.async.threads=1",
+                              "stats.async.queue-capacity=4",
+                              "cache.stats.maximum-size=0"})
+public class AsyncStatsTest {
+
+  private static final String MONTH = "{\"start\": \"2022-1-1\", \"months\": 1}";
+
+  @Autowired
+  private CryptoInvestment cryptoService;
+
+  @Autowired
+  private Executor statsExecutor;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testAsyncIsTheSameAsSync() {
+    var month = new MonthRequest("2022-1-1", 1);
+
+    var async = cryptoService.getCryptoStatsForMonthAsync("BTC", month).join();
+
+    assertEquals(cryptoService.getCryptoStatsForMonth("BTC", month), async);
+  }
+
+  @Test
+  void testStatsEndpointIsAsync() throws Exception {
+    stats("BTC").andExpect(status().isOk())
+           .andExpect(jsonPath("$.crypto").value("BTC"))
+           .andExpect(jsonPath("$.minPrice[0].price").value(1));
+  }
+
+  @Test
+  void testUnknownCryptoIsBadRequest() throws Exception {
+    stats("UNKNOWN").andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void testFullExecutorIsServiceUnavailable() throws Exception {
+    var release = new CountDownLatch(1);
+    var done = new CountDownLatch(5);
+    Runnable blocker = () -> {
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        done.countDown();
+      }
+    };
+    // one task runs, the others wait in the queue
+    for (int i = 0; i < 5; i++) {
+      statsExecutor.execute(blocker);
+    }
+    try {
+      stats("BTC").andExpect(status().isServiceUnavailable());
+    } finally {
+      release.countDown();
+    }
+
+    // the executor takes queries again when the blocking tasks are done
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertTrue(cryptoService.getCryptoStatsForMonthAsync("BTC", new MonthRequest("2022-1-1", 1))
+                            .get(10, TimeUnit.SECONDS)
+                            .getMaxPriceCount() > 0);
+  }
+
+  private ResultActions stats(String crypto) throws Exception {
+    var result = mockMvc.perform(post("/api/v1/stats/crypto/" + crypto)
+                                     .contentType(MediaType.APPLICATION_JSON)
+                                     .content(MONTH))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+    return mockMvc.perform(asyncDispatch(result));
+  }
+}
@@ -0,0 +1,137 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
+import com.epam.cryptoinvestment.requests.BatchStatsItem;
+import com.epam.cryptoinvestment.requests.BatchStatsRequest;
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  cache is disabled (maximum size 0), so every stats are calculated. BTC month and BTC 10 days
+  overlap, they are calculated from one scan of the month, the results have to be the same
+  as for single requests
+
+  rate limiter doesn't refresh and doesn't wait during the test, every 2 items take a permit
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"cache.stats.maximum-size=0",
+                              "stats.batch.max-items=4",
+                              "stats.batch.items-per-permit=2",
+                              "resilience4j.ratelimiter.instances.cryptoService.limitRefreshPeriod=1h",
+                              "resilience4j.ratelimiter.instances.cryptoService.timeoutDuration=0"})
+public class BatchStatsTest {
+
+  private static final BatchStatsItem BTC_MONTH = new BatchStatsItem("BTC", "2022-1-1", 1, 0);
+  private static final BatchStatsItem BTC_DAYS = new BatchStatsItem("BTC", "2022-1-1", 0, 10);
+  private static final BatchStatsItem ETH_MONTH = new BatchStatsItem("ETH", "2022-1-1", 1, 0);
+
+  @Autowired
+  private CryptoInvestment cryptoInvestment;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private RateLimiterRegistry rateLimiterRegistry;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  @Order(1)
+  void testBatchIsTheSameAsSingleRequests() {
+    var stats = cryptoInvestment.getCryptoStatsBatch(List.of(BTC_MONTH, BTC_DAYS, ETH_MONTH, BTC_MONTH));
+
+    var btcMonth = cryptoInvestment.getCryptoStatsForMonth("BTC", new MonthRequest("2022-1-1", 1));
+    var ethMonth = cryptoInvestment.getCryptoStatsForMonth("ETH", new MonthRequest("2022-1-1", 1));
+    // BTC days alone doesn't overlap with anything, so it is calculated with queries
+    var btcDays = cryptoInvestment.getCryptoStatsBatch(List.of(BTC_DAYS)).get(0);
+
+    assertEquals(4, stats.size());
+    assertEquals(utc(btcMonth), utc(stats.get(0)));
+    assertEquals(utc(btcDays), utc(stats.get(1)));
+    assertEquals(utc(ethMonth), utc(stats.get(2)));
+    assertEquals(utc(btcMonth), utc(stats.get(3)));
+  }
+
+  @Test
+  @Order(2)
+  void testIncorrectItems() throws Exception {
+    batch(BTC_MONTH, BTC_DAYS, ETH_MONTH, BTC_MONTH, BTC_DAYS).andExpect(status().isBadRequest());
+    batch().andExpect(status().isBadRequest());
+    batch(new BatchStatsItem("BTC", "2022-1-1", 1, 1)).andExpect(status().isBadRequest());
+    batch(new BatchStatsItem("BTC", "2022-1-1", 0, 0)).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Order(3)
+  void testItemsAreWeightedPermits() throws Exception {
+    var rateLimiter = rateLimiterRegistry.rateLimiter("cryptoService");
+    int available = rateLimiter.getMetrics().getAvailablePermissions();
+
+    batch(BTC_MONTH, BTC_DAYS, ETH_MONTH)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.stats.length()").value(3))
+        .andExpect(jsonPath("$.stats[2].crypto").value("ETH"));
+
+    assertEquals(available - 2, rateLimiter.getMetrics().getAvailablePermissions());
+  }
+
+  @Test
+  @Order(4)
+  void testTooManyRequests() throws Exception {
+    var rateLimiter = rateLimiterRegistry.rateLimiter("cryptoService");
+    int batches = rateLimiter.getMetrics().getAvailablePermissions() / 2;
+
+    for (int i = 0; i < batches; i++) {
+      batch(BTC_MONTH, ETH_MONTH, BTC_DAYS, ETH_MONTH).andExpect(status().isOk());
+    }
+    batch(BTC_MONTH, ETH_MONTH, BTC_DAYS, ETH_MONTH).andExpect(status().isTooManyRequests());
+  }
+
+  private ResultActions batch(BatchStatsItem... items) throws Exception {
+    return mockMvc.perform(post("/api/v1/stats/batch")
+                               .contentType(MediaType.APPLICATION_JSON)
+                               .content(objectMapper.writeValueAsString(new BatchStatsRequest(List.of(items)))));
+  }
+
+  private static CryptoStatsResponse utc(CryptoStatsResponse stats) {
+    return new CryptoStatsResponse(stats.getCrypto(), utc(stats.getOldest()), utc(stats.getNewest()),
+                                   utc(stats.getMinPrice()), utc(stats.getMaxPrice()),
+                                   stats.getMinPriceCount(), stats.getMaxPriceCount());
+  }
+
+  private static CryptoPricePoint utc(CryptoPricePoint point) {
+    return new CryptoPricePoint(point.getTimestamp().withZoneSameInstant(ZoneOffset.UTC), point.getPrice());
+  }
+
+  private static List<CryptoPricePoint> utc(List<CryptoPricePoint> points) {
+    return points.stream().map(BatchStatsTest::utc).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,94 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  binary responses have the same content as json, only the encoding is different
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class BinaryFormatsTest {
+
+  private static final String STATS_URL = "/api/v1/stats/crypto/BTC";
+  private static final String NORMALIZED_URL = "/api/v1/stats/normalized";
+  private static final String MONTH = "{\"start\": \"2022-1-1\", \"months\": 1}";
+  private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+  private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testCborStats() throws Exception {
+    assertSameAsJson(STATS_URL, CBOR, new CBORFactory());
+  }
+
+  @Test
+  void testSmileNormalizedPrices() throws Exception {
+    assertSameAsJson(NORMALIZED_URL, SMILE, new SmileFactory());
+  }
+
+  @Test
+  void testJsonIsDefault() throws Exception {
+    perform(post(STATS_URL).contentType(MediaType.APPLICATION_JSON).content(MONTH))
+           .andExpect(status().isOk())
+           .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+  }
+
+  private void assertSameAsJson(String url, MediaType mediaType, JsonFactory factory) throws Exception {
+    var json = readJson(url);
+    var binary = perform(post(url).contentType(MediaType.APPLICATION_JSON)
+                                  .accept(mediaType)
+                                  .content(MONTH))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(mediaType))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+
+    assertEquals(json, new ObjectMapper(factory).readTree(binary));
+    assertTrue(binary.length < new ObjectMapper().writeValueAsBytes(json).length);
+  }
+
+  private JsonNode readJson(String url) throws Exception {
+    var body = perform(post(url).contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .content(MONTH))
+                      .andExpect(status().isOk())
+                      .andReturn()
+                      .getResponse()
+                      .getContentAsByteArray();
+    return new ObjectMapper().readTree(body);
+  }
+
+  // stats are asynchronous, the response is written by the async dispatch
+  private ResultActions perform(RequestBuilder request) throws Exception {
+    var actions = mockMvc.perform(request);
+    var result = actions.andReturn();
+    return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+  }
+}
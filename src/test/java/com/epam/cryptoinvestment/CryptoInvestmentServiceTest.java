@@ -2,6 +2,9 @@ package com.epam.cryptoinvestment;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.epam.cryptoinvestment.exceptions.CryptoNotSupportedException;
 import com.epam.cryptoinvestment.exceptions.IncorrectDaysOrMonthsValueException;
@@ -18,6 +21,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
@@ -31,6 +36,9 @@ public class CryptoInvestmentServiceTest {
   @Autowired
   private CryptoInvestment cryptoService;
 
+  @Autowired
+  private MockMvc mockMvc;
+
   @Test
   void getNormalizedPricesForMonthTestWithNullDate() {
     assertThrows(NullPointerException.class,
@@ -61,6 +69,40 @@ public class CryptoInvestmentServiceTest {
     assertEquals("XRP", list.get(4).getName());
   }
 
+  @Test
+  void getNormalizedPricesForMonthWithLimitTest() {
+    var month = new MonthRequest("2022-1-1", 1);
+    var all = cryptoService.getNormalizedPricesForMonth(month);
+
+    assertEquals(all.subList(0, 2), cryptoService.getNormalizedPricesForMonth(month, 2));
+    assertEquals(all, cryptoService.getNormalizedPricesForMonth(month, 10));
+  }
+
+  @Test
+  void getNormalizedPricesWithLimitEndpointTest() throws Exception {
+    mockMvc.perform(post("/api/v1/stats/normalized?limit=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\": \"2022-1-1\", \"months\": 1}"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.normalized_prices.length()").value(2))
+           .andExpect(jsonPath("$.normalized_prices[0].name").value("BTC"))
+           .andExpect(jsonPath("$.normalized_prices[1].name").value("DOGE"));
+
+    mockMvc.perform(post("/api/v1/stats/normalized?limit=0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\": \"2022-1-1\", \"months\": 1}"))
+           .andExpect(status().isBadRequest());
+  }
+
+  // only the rate limit is 429, an incorrect request stays 400
+  @Test
+  void getMaxNormalizedCryptoEndpointWithIncorrectDaysTest() throws Exception {
+    mockMvc.perform(post("/api/v1/max/normalized")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\": \"2022-1-1\", \"days\": 0}"))
+           .andExpect(status().isBadRequest());
+  }
+
   @Test
   void getCryptoStatsForMonthTestWithNonExistingCrypto() {
     assertThrows(CryptoNotSupportedException.class,
@@ -0,0 +1,154 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.epam.cryptoinvestment.model.CryptoPriceBatch;
+import com.epam.cryptoinvestment.model.CryptoPriceRange;
+import com.epam.cryptoinvestment.repository.CryptoBulkRepository;
+import com.epam.cryptoinvestment.repository.CryptoPartitionRepository;
+import com.epam.cryptoinvestment.repository.CryptoRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  prices on both sides of a month boundary (last millisecond of january, first of february)
+  in months without partitions go to the default partition first and to their own
+  partitions after createPartitionsForDefaultRows, range queries should see the same rows
+  before and after that and scan only the partitions of the range
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@SpringBootTest
+public class CryptoPartitionTest {
+
+  private static final String CRYPTO = "PARTITIONED";
+
+  @Autowired
+  private CryptoBulkRepository cryptoBulkRepository;
+
+  @Autowired
+  private CryptoPartitionRepository cryptoPartitionRepository;
+
+  @Autowired
+  private CryptoRepository cryptoRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  void insertPricesAroundMonthBoundary() {
+    var id = cryptoBulkRepository.findOrCreateCryptoName(CRYPTO);
+    var batch = new CryptoPriceBatch(4);
+    batch.add(millis(utc(2040, 1, 1)), id, 1);
+    batch.add(millis(utc(2040, 2, 1)) - 1, id, 2);
+    batch.add(millis(utc(2040, 2, 1)), id, 3);
+    batch.add(millis(utc(2040, 3, 1)) - 1, id, 4);
+    cryptoBulkRepository.insertIgnoringDuplicates(batch);
+  }
+
+  @AfterAll
+  void removePartitionedCrypto() {
+    // other tests expect only the cryptos from prices directory, partitions of 2040 are only for this test
+    for (var table : List.of("crypto_daily_normalized", "crypto_monthly_rollups", "crypto_daily_rollups",
+                              "cryptos")) {
+      jdbcTemplate.update("DELETE FROM " + table
+                          + " WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?)", CRYPTO);
+    }
+    jdbcTemplate.update("DELETE FROM crypto_names WHERE name = ?", CRYPTO);
+    for (var partition : List.of("cryptos_2040_01", "cryptos_2040_02", "cryptos_2040_04", "cryptos_2040_05")) {
+      jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+  }
+
+  @Test
+  void testRowsAreMovedToMonthPartitions() {
+    var before = pricesInRanges();
+    assertEquals(List.of("cryptos_default"), partitionsOfCrypto());
+
+    assertEquals(2, cryptoPartitionRepository.createPartitionsForDefaultRows());
+
+    assertEquals(List.of("cryptos_2040_01", "cryptos_2040_02"), partitionsOfCrypto());
+    assertEquals(before, pricesInRanges());
+    assertEquals(List.of(new CryptoPriceRange(CRYPTO, 1, 2)),
+                 findPriceRanges(utc(2040, 1, 1), utc(2040, 2, 1)));
+    assertEquals(List.of(new CryptoPriceRange(CRYPTO, 2, 3)),
+                 findPriceRanges(utc(2040, 2, 1).minusNanos(1_000_000), utc(2040, 2, 1).plusNanos(1_000_000)));
+    assertEquals(List.of(new CryptoPriceRange(CRYPTO, 3, 4)),
+                 findPriceRanges(utc(2040, 2, 1), utc(2040, 3, 1)));
+
+    // duplicates on the boundary are still skipped when they go to the new partitions
+    var batch = new CryptoPriceBatch(1);
+    batch.add(millis(utc(2040, 2, 1)), cryptoBulkRepository.findOrCreateCryptoName(CRYPTO), 10);
+    cryptoBulkRepository.insertIgnoringDuplicates(batch);
+    assertEquals(before, pricesInRanges());
+
+    var plan = String.join("\n", jdbcTemplate.queryForList(
+        "EXPLAIN SELECT MIN(price) FROM cryptos WHERE timestamp >= ? AND timestamp < ?",
+        String.class, timestamp(utc(2040, 2, 1)), timestamp(utc(2040, 3, 1))));
+    assertTrue(plan.contains("cryptos_2040_02"), plan);
+    assertFalse(plan.contains("cryptos_2040_01"), plan);
+    assertFalse(plan.contains("cryptos_default"), plan);
+  }
+
+  // importer creates partitions of the months of a file before its rows are inserted
+  @Test
+  void testRowsOfCreatedPartitionsDontGoToDefaultPartition() {
+    var months = List.of(LocalDate.of(2040, 4, 1), LocalDate.of(2040, 5, 1));
+    assertEquals(2, cryptoPartitionRepository.createPartitions(months));
+    assertEquals(0, cryptoPartitionRepository.createPartitions(months));
+
+    var batch = new CryptoPriceBatch(1);
+    batch.add(millis(utc(2040, 4, 15)), cryptoBulkRepository.findOrCreateCryptoName(CRYPTO), 5);
+    cryptoBulkRepository.insertIgnoringDuplicates(batch);
+    assertEquals("cryptos_2040_04", jdbcTemplate.queryForObject(
+        "SELECT tableoid::regclass::text FROM cryptos WHERE timestamp = ?",
+        String.class, timestamp(utc(2040, 4, 15))));
+  }
+
+  private List<List<CryptoPriceRange>> pricesInRanges() {
+    return List.of(findPriceRanges(utc(2040, 1, 1), utc(2040, 2, 1)),
+                   findPriceRanges(utc(2040, 1, 15), utc(2040, 2, 15)),
+                   findPriceRanges(utc(2040, 2, 1), utc(2040, 3, 1)));
+  }
+
+  private List<CryptoPriceRange> findPriceRanges(ZonedDateTime start, ZonedDateTime end) {
+    return cryptoRepository.findPriceRangesInRange(start, end)
+                           .stream()
+                           .filter(range -> CRYPTO.equals(range.getName()))
+                           .collect(Collectors.toList());
+  }
+
+  private List<String> partitionsOfCrypto() {
+    return jdbcTemplate.queryForList(
+        "SELECT DISTINCT tableoid::regclass::text FROM cryptos "
+        + "WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?) AND timestamp < ? ORDER BY 1",
+        String.class, CRYPTO, timestamp(utc(2040, 3, 1)));
+  }
+
+  private static ZonedDateTime utc(int year, int month, int day) {
+    return ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC);
+  }
+
+  private static long millis(ZonedDateTime time) {
+    return time.toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime timestamp(ZonedDateTime time) {
+    return time.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+  }
+}
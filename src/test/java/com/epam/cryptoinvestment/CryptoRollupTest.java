@@ -0,0 +1,161 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.CryptoPriceBatch;
+import com.epam.cryptoinvestment.model.CryptoPriceRange;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.repository.CryptoBulkRepository;
+import com.epam.cryptoinvestment.repository.CryptoRepository;
+import com.epam.cryptoinvestment.repository.CryptoRollupRepository;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  ranges answered from rollups (full months, full days and partial days at the edges)
+  should give the same min and max prices as the query over all rows,
+  max normalized crypto of every day should be the same as the one calculated from all rows
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@SpringBootTest
+public class CryptoRollupTest {
+
+  private static final String MIDNIGHT_CRYPTO = "MIDNIGHT";
+
+  @Autowired
+  private CryptoBulkRepository cryptoBulkRepository;
+
+  @Autowired
+  private CryptoRepository cryptoRepository;
+
+  @Autowired
+  private CryptoRollupRepository cryptoRollupRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterAll
+  void removeMidnightCrypto() {
+    for (var table : List.of("crypto_daily_normalized", "crypto_monthly_rollups", "crypto_daily_rollups",
+                              "cryptos")) {
+      jdbcTemplate.update("DELETE FROM " + table
+                          + " WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?)",
+                          MIDNIGHT_CRYPTO);
+    }
+    jdbcTemplate.update("DELETE FROM crypto_names WHERE name = ?", MIDNIGHT_CRYPTO);
+  }
+
+  private void assertSameAsRawData(ZonedDateTime start, ZonedDateTime end) {
+    assertEquals(cryptoRepository.findPriceRangesInRange(start, end),
+                 cryptoRollupRepository.findPriceRangesInRange(start, end));
+  }
+
+  @Test
+  void testFullMonth() {
+    assertSameAsRawData(utc(2022, 1, 1, 0), utc(2022, 2, 1, 0));
+  }
+
+  @Test
+  void testFullMonthWithPartialDaysAround() {
+    assertSameAsRawData(utc(2021, 12, 31, 12), utc(2022, 2, 1, 6));
+  }
+
+  @Test
+  void testFullDaysWithPartialDaysAround() {
+    assertSameAsRawData(utc(2022, 1, 1, 5), utc(2022, 1, 3, 7));
+  }
+
+  @Test
+  void testPartialDay() {
+    assertSameAsRawData(utc(2022, 1, 1, 5), utc(2022, 1, 1, 9));
+  }
+
+  @Test
+  void testEndOfTheDayRange() {
+    var endOfDay = utc(2022, 1, 3, 0).minusNanos(1);
+    assertSameAsRawData(endOfDay.minusMonths(1), endOfDay);
+  }
+
+  @Test
+  void testMaxNormalizedOfEveryDay() {
+    for (var day = LocalDate.of(2022, 1, 1); day.isBefore(LocalDate.of(2022, 2, 1)); day = day.plusDays(1)) {
+      var start = day.atStartOfDay(ZoneOffset.UTC);
+      var expected = cryptoRepository.findPriceRangesInRange(start, start.plusDays(1))
+                                     .stream()
+                                     .sorted(Comparator.comparingDouble(CryptoRollupTest::normalized).reversed()
+                                                       .thenComparing(CryptoPriceRange::getName))
+                                     .map(range -> new CryptoPrice(range.getName(), normalized(range)))
+                                     .findFirst();
+      assertEquals(expected, cryptoRollupRepository.findMaxNormalized(day), day.toString());
+    }
+  }
+
+  @Test
+  void testNoMaxNormalizedWithoutPrices() {
+    assertTrue(cryptoRollupRepository.findMaxNormalized(LocalDate.of(2022, 2, 1)).isEmpty());
+  }
+
+  // days of the rollups are UTC days only if the timestamps are stored in UTC, whatever the zone of the jvm is
+  @Test
+  void testTimestampsAreStoredInUtc() {
+    assertEquals("2022-01-01 04:00:00",
+                 jdbcTemplate.queryForObject(
+                     "SELECT MIN(timestamp)::text FROM cryptos "
+                     + "WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = 'BTC')",
+                     String.class));
+  }
+
+  /*
+    prices half an hour before and after UTC midnight imported by a jvm in another zone
+    (where both of them are on the same day) still belong to two different UTC days
+  */
+  @Test
+  void testMaxNormalizedDaysAreUtcDays() {
+    var defaultZone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+    try {
+      var id = cryptoBulkRepository.findOrCreateCryptoName(MIDNIGHT_CRYPTO);
+      var batch = new CryptoPriceBatch(4);
+      batch.add(millis(utc(2031, 1, 1, 23)), id, 1);
+      batch.add(millis(utc(2031, 1, 1, 23).plusMinutes(30)), id, 3);
+      batch.add(millis(utc(2031, 1, 2, 0).plusMinutes(30)), id, 10);
+      batch.add(millis(utc(2031, 1, 2, 1)), id, 11);
+      cryptoBulkRepository.insertIgnoringDuplicates(batch);
+      cryptoRollupRepository.refresh(MIDNIGHT_CRYPTO, new Range(utc(2031, 1, 1, 23), utc(2031, 1, 2, 2)));
+    } finally {
+      TimeZone.setDefault(defaultZone);
+    }
+
+    assertEquals(new CryptoPrice(MIDNIGHT_CRYPTO, 2.0),
+                 cryptoRollupRepository.findMaxNormalized(LocalDate.of(2031, 1, 1)).orElseThrow());
+    assertEquals(new CryptoPrice(MIDNIGHT_CRYPTO, 0.1),
+                 cryptoRollupRepository.findMaxNormalized(LocalDate.of(2031, 1, 2)).orElseThrow());
+  }
+
+  private static long millis(ZonedDateTime time) {
+    return time.toInstant().toEpochMilli();
+  }
+
+  private static double normalized(CryptoPriceRange range) {
+    return (range.getMax() - range.getMin()) / range.getMin();
+  }
+
+  private static ZonedDateTime utc(int year, int month, int day, int hour) {
+    return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, ZoneOffset.UTC);
+  }
+}
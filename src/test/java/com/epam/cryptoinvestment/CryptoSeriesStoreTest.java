@@ -0,0 +1,98 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.epam.cryptoinvestment.exceptions.CryptoNotSupportedException;
+import com.epam.cryptoinvestment.requests.DayRequest;
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import com.epam.cryptoinvestment.store.CryptoNameDictionary;
+import com.epam.cryptoinvestment.store.CryptoSeries;
+import com.epam.cryptoinvestment.store.CryptoSeriesStore;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  the same checks as in CryptoInvestmentServiceTest, but prices are loaded to memory
+  so the service should answer from CryptoSeriesStore with the same results
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "prices.store.enabled=true")
+public class CryptoSeriesStoreTest {
+
+  @Autowired
+  private CryptoInvestment cryptoService;
+
+  @Autowired
+  private CryptoSeriesStore cryptoSeriesStore;
+
+  @Autowired
+  private CryptoNameDictionary cryptoNameDictionary;
+
+  @Test
+  void testStoreIsLoaded() {
+    assertTrue(cryptoSeriesStore.isReady());
+    assertEquals(5, cryptoSeriesStore.findAll().size());
+    assertEquals(10, cryptoSeriesStore.find("XRP").orElseThrow().size());
+  }
+
+  @Test
+  void testSeriesAreInTheOrderOfNameIndexes() {
+    assertEquals(cryptoNameDictionary.findAll().stream().map(CryptoNameDictionary.Entry::getName).collect(Collectors.toList()),
+                 cryptoSeriesStore.findAll().stream().map(CryptoSeries::getName).collect(Collectors.toList()));
+    assertTrue(cryptoSeriesStore.find("NOT EXISTS").isEmpty());
+  }
+
+  @Test
+  void getNormalizedPricesForMonthTest() {
+    var list =
+        cryptoService.getNormalizedPricesForMonth(new MonthRequest("2022-1-1", 1));
+    assertEquals(5, list.size());
+    assertEquals("BTC", list.get(0).getName());
+    assertEquals("DOGE", list.get(1).getName());
+    assertEquals("ETH", list.get(2).getName());
+    assertEquals("LTC", list.get(3).getName());
+    assertEquals("XRP", list.get(4).getName());
+  }
+
+  @Test
+  void getCryptoStatsForMonthTest() {
+    var data = cryptoService.getCryptoStatsForMonth("BTC",
+                                                    new MonthRequest("2022-1-1", 1));
+    assertEquals("1641009600000",
+                 data.getOldest().getTimestamp().toInstant().toEpochMilli() + "");
+    assertEquals("1641308400000",
+                 data.getNewest().getTimestamp().toInstant().toEpochMilli() + "");
+    assertEquals(1, data.getMinPrice().get(0).getPrice());
+    assertEquals(10, data.getMaxPrice().get(0).getPrice());
+  }
+
+  @Test
+  void getCryptoStatsForMonthTestWithNonExistingCrypto() {
+    assertThrows(CryptoNotSupportedException.class,
+                 () -> cryptoService.getCryptoStatsForMonth(
+                     "NOT EXISTS",
+                     new MonthRequest("2022-1-1", 1)));
+  }
+
+  @Test
+  void getMaxNormalizedCryptoTest() {
+    var data =
+        cryptoService.getMaxNormalizedCrypto(new DayRequest("2022-1-1", 1));
+    assertEquals("BTC", data.getName());
+    assertEquals(4, data.getPrice());
+  }
+
+  @Test
+  void getRollingNormalizedPricesTest() {
+    RollingNormalizedTest.assertSameAsMaxNormalized(cryptoService, "2022-1-1", 31);
+  }
+}
@@ -0,0 +1,51 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.epam.cryptoinvestment.store.CryptoSeries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CryptoSeriesTest {
+
+  private CryptoSeries series;
+
+  /*
+    prices at timestamps 10, 20, ... 100, min price 1 occurs twice and max price 9 occurs twice
+  */
+  @BeforeEach
+  void setUp() {
+    var builder = new CryptoSeries.Builder("BTC");
+    double[] prices = {5, 1, 7, 9, 3, 1, 9, 4, 6, 2};
+    for (int i = 0; i < prices.length; i++) {
+      builder.add((i + 1) * 10L, prices[i]);
+    }
+    series = builder.build();
+  }
+
+  @Test
+  void testIndexOf() {
+    assertEquals(0, series.indexOf(0));
+    assertEquals(0, series.indexOf(10));
+    assertEquals(1, series.indexOf(11));
+    assertEquals(9, series.indexOf(100));
+    assertEquals(10, series.indexOf(101));
+  }
+
+  @Test
+  void testMinAndMaxInRange() {
+    assertEquals(1, series.min(0, 10));
+    assertEquals(9, series.max(0, 10));
+    assertEquals(3, series.min(2, 5));
+    assertEquals(9, series.max(2, 5));
+  }
+
+  @Test
+  void testIndexesOfTiedPrices() {
+    assertArrayEquals(new int[] {1, 5}, series.indexesOf(1, 0, 10));
+    assertArrayEquals(new int[] {3, 6}, series.indexesOf(9, 0, 10));
+    assertArrayEquals(new int[] {6}, series.indexesOf(9, 4, 10));
+    assertArrayEquals(new int[] {}, series.indexesOf(8, 0, 10));
+  }
+}
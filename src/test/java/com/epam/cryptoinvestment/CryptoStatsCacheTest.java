@@ -0,0 +1,137 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.epam.cryptoinvestment.cache.CryptoStatsCache;
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.responses.CryptoStatsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CryptoStatsCacheTest {
+
+  private static final Range JANUARY = new Range(utc(2022, 1, 1), utc(2022, 2, 1));
+  private static final Range FEBRUARY = new Range(utc(2022, 2, 1), utc(2022, 3, 1));
+
+  private SimpleMeterRegistry meterRegistry;
+  private CryptoStatsCache cache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new CryptoStatsCache(meterRegistry, 100, 60);
+    loads = new AtomicInteger();
+  }
+
+  private List<CryptoPrice> loadNormalizedPrices(Range range) {
+    loads.incrementAndGet();
+    return List.of(new CryptoPrice("BTC", 1));
+  }
+
+  private CryptoStatsResponse loadStats(Range range) {
+    loads.incrementAndGet();
+    return new CryptoStatsResponse("BTC", null, null, List.of(), List.of(), 0, 0);
+  }
+
+  @Test
+  void testSameRangeIsLoadedOnce() {
+    cache.getNormalizedPrices(JANUARY, this::loadNormalizedPrices);
+    cache.getNormalizedPrices(new Range(utc(2022, 1, 1), utc(2022, 2, 1)), this::loadNormalizedPrices);
+    assertEquals(1, loads.get());
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "normalizedPrices")
+                                 .tag("result", "hit").functionCounter().count());
+  }
+
+  /*
+    import in the middle of january should remove january entries, but not february
+    and stats of other cryptos should stay in cache
+  */
+  @Test
+  void testImportRemovesOnlyOverlappingEntries() {
+    cache.getNormalizedPrices(JANUARY, this::loadNormalizedPrices);
+    cache.getNormalizedPrices(FEBRUARY, this::loadNormalizedPrices);
+    cache.getCryptoStats("BTC", JANUARY, this::loadStats);
+    cache.getCryptoStats("ETH", JANUARY, this::loadStats);
+    cache.getCryptoStats("BTC", FEBRUARY, this::loadStats);
+    assertEquals(5, loads.get());
+
+    cache.onPricesImported(new PricesImportedEvent(
+        Map.of("BTC", new Range(utc(2022, 1, 10), utc(2022, 1, 11)))));
+
+    cache.getNormalizedPrices(JANUARY, this::loadNormalizedPrices);
+    assertEquals(6, loads.get());
+    cache.getNormalizedPrices(FEBRUARY, this::loadNormalizedPrices);
+    cache.getCryptoStats("ETH", JANUARY, this::loadStats);
+    cache.getCryptoStats("BTC", FEBRUARY, this::loadStats);
+    assertEquals(6, loads.get());
+    cache.getCryptoStats("BTC", JANUARY, this::loadStats);
+    assertEquals(7, loads.get());
+  }
+
+  /*
+    stats which were calculated from the prices before the import must not get to the cache
+    when their calculation finishes after the import
+  */
+  @Test
+  void testAsyncStatsLoadedDuringImportAreNotCached() {
+    var calculation = new CompletableFuture<CryptoStatsResponse>();
+    var stats = cache.getCryptoStatsAsync("BTC", JANUARY, range -> {
+      loads.incrementAndGet();
+      return calculation;
+    });
+
+    cache.onPricesImported(new PricesImportedEvent(
+        Map.of("BTC", new Range(utc(2022, 1, 10), utc(2022, 1, 11)))));
+    calculation.complete(loadStats(JANUARY));
+
+    assertEquals("BTC", stats.join().getCrypto());
+    cache.getCryptoStatsAsync("BTC", JANUARY, range -> CompletableFuture.completedFuture(loadStats(range)));
+    assertEquals(3, loads.get());
+  }
+
+  // the same for values which are calculated synchronously (the import runs in the loader)
+  @Test
+  void testValuesLoadedDuringImportAreNotCached() {
+    Runnable importJanuary = () -> cache.onPricesImported(new PricesImportedEvent(
+        Map.of("BTC", new Range(utc(2022, 1, 10), utc(2022, 1, 11)))));
+    cache.getNormalizedPrices(JANUARY, range -> {
+      importJanuary.run();
+      return loadNormalizedPrices(range);
+    });
+    cache.getCryptoStats("BTC", JANUARY, range -> {
+      importJanuary.run();
+      return loadStats(range);
+    });
+
+    cache.getNormalizedPrices(JANUARY, this::loadNormalizedPrices);
+    cache.getCryptoStats("BTC", JANUARY, this::loadStats);
+    assertEquals(4, loads.get());
+    assertEquals(1, meterRegistry.get("cache.import.invalidations").tag("cache", "normalizedPrices")
+                                 .counter().count());
+  }
+
+  @Test
+  void testFailedLoadIsNotCached() {
+    assertThrows(IllegalStateException.class, () -> cache.getNormalizedPrices(JANUARY, range -> {
+      throw new IllegalStateException();
+    }));
+
+    cache.getNormalizedPrices(JANUARY, this::loadNormalizedPrices);
+    assertEquals(1, loads.get());
+  }
+
+  private static ZonedDateTime utc(int year, int month, int day) {
+    return ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,114 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.model.CryptoPriceBatch;
+import com.epam.cryptoinvestment.model.CryptoPricePoint;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.repository.CryptoBulkRepository;
+import com.epam.cryptoinvestment.repository.CryptoRollupRepository;
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  min price occurs 5 times and max price 3 times, with limit 2 only the first two
+  (by time) are returned, but all of them are counted
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "stats.ties.limit=2")
+public class CryptoStatsTiesTest {
+
+  private static final String CRYPTO = "TIES";
+  private static final String SINGLE = "NO_TIES";
+  private static final ZonedDateTime START = ZonedDateTime.of(2031, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired
+  private CryptoBulkRepository cryptoBulkRepository;
+
+  @Autowired
+  private CryptoRollupRepository cryptoRollupRepository;
+
+  @Autowired
+  private CryptoInvestment cryptoInvestment;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @BeforeAll
+  void insertPrices() {
+    insertHourlyPrices(CRYPTO, 5, 1, 9, 1, 1, 9, 1, 9, 1, 6);
+    insertHourlyPrices(SINGLE, 3, 1, 4, 2);
+  }
+
+  // the same as an import, so the new crypto is known (see CryptoNameDictionary)
+  private void insertHourlyPrices(String crypto, double... prices) {
+    var id = cryptoBulkRepository.findOrCreateCryptoName(crypto);
+    var batch = new CryptoPriceBatch(prices.length);
+    for (int i = 0; i < prices.length; i++) {
+      batch.add(START.plusHours(i).toInstant().toEpochMilli(), id, prices[i]);
+    }
+    cryptoBulkRepository.insertIgnoringDuplicates(batch);
+    var range = new Range(START, START.plusDays(1));
+    cryptoRollupRepository.refresh(crypto, range);
+    eventPublisher.publishEvent(new PricesImportedEvent(Map.of(crypto, range)));
+  }
+
+  @Test
+  void testTiesAreLimitedAndCounted() {
+    var stats = cryptoInvestment.getCryptoStatsForMonth(CRYPTO, new MonthRequest("2031-1-1", 1));
+
+    assertEquals(new CryptoPricePoint(START, 5), utc(stats.getOldest()));
+    assertEquals(new CryptoPricePoint(START.plusHours(9), 6), utc(stats.getNewest()));
+    assertEquals(List.of(new CryptoPricePoint(START.plusHours(1), 1),
+                         new CryptoPricePoint(START.plusHours(3), 1)),
+                 utc(stats.getMinPrice()));
+    assertEquals(5, stats.getMinPriceCount());
+    assertEquals(List.of(new CryptoPricePoint(START.plusHours(2), 9),
+                         new CryptoPricePoint(START.plusHours(5), 9)),
+                 utc(stats.getMaxPrice()));
+    assertEquals(3, stats.getMaxPriceCount());
+  }
+
+  @Test
+  void testTiesBelowLimitAreCountedFromTheList() {
+    var stats = cryptoInvestment.getCryptoStatsForMonth(SINGLE, new MonthRequest("2031-1-1", 1));
+
+    assertEquals(List.of(new CryptoPricePoint(START.plusHours(1), 1)), utc(stats.getMinPrice()));
+    assertEquals(1, stats.getMinPriceCount());
+    assertEquals(List.of(new CryptoPricePoint(START.plusHours(2), 4)), utc(stats.getMaxPrice()));
+    assertEquals(1, stats.getMaxPriceCount());
+  }
+
+  @Test
+  void testNoPricesInRange() {
+    var stats = cryptoInvestment.getCryptoStatsForMonth(CRYPTO, new MonthRequest("2030-12-1", 1));
+
+    assertEquals(List.of(), stats.getMinPrice());
+    assertEquals(0, stats.getMinPriceCount());
+    assertEquals(List.of(), stats.getMaxPrice());
+    assertEquals(0, stats.getMaxPriceCount());
+  }
+
+  private static CryptoPricePoint utc(CryptoPricePoint point) {
+    return new CryptoPricePoint(point.getTimestamp().withZoneSameInstant(ZoneOffset.UTC), point.getPrice());
+  }
+
+  private static List<CryptoPricePoint> utc(List<CryptoPricePoint> points) {
+    return points.stream().map(CryptoStatsTiesTest::utc).collect(Collectors.toList());
+  }
+}
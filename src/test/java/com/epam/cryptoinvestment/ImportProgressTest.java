@@ -0,0 +1,79 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.cryptoinvestment.ingest.ImportHealthIndicator;
+import com.epam.cryptoinvestment.ingest.ImportProgress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  startup import runs in the background, the application is not ready until it is finished
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "prices.import.async=true")
+public class ImportProgressTest {
+
+  private static final long TIMEOUT_MILLIS = 15_000;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ImportProgress importProgress;
+
+  @Test
+  void testWarmingUntilStartupImportIsFinished() {
+    var progress = new ImportProgress();
+    progress.started(5);
+    progress.fileImported(10);
+
+    var health = new ImportHealthIndicator(progress).health();
+
+    assertEquals(ImportHealthIndicator.WARMING, health.getStatus());
+    assertEquals(1, health.getDetails().get("filesImported"));
+
+    progress.finished();
+    progress.ready();
+
+    assertEquals("UP", new ImportHealthIndicator(progress).health().getStatus().getCode());
+  }
+
+  @Test
+  void testReadyAfterStartupImport() throws Exception {
+    awaitReady();
+
+    mockMvc.perform(get("/actuator/health/readiness"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.status").value("UP"))
+           .andExpect(jsonPath("$.components.import.details.state").value("READY"));
+
+    mockMvc.perform(get("/actuator/import"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.state").value("READY"))
+           .andExpect(jsonPath("$.running").value(false))
+           .andExpect(jsonPath("$.files").value(5))
+           .andExpect(jsonPath("$.filesFailed").value(0));
+  }
+
+  private void awaitReady() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (importProgress.getState() != ImportProgress.State.READY) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("startup import was not finished in " + TIMEOUT_MILLIS + " ms");
+      }
+      Thread.sleep(100);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.epam.cryptoinvestment.model.CryptoPrice;
+import com.epam.cryptoinvestment.model.ImportStatus;
+import com.epam.cryptoinvestment.repository.CryptoRollupRepository;
+import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
+import com.epam.cryptoinvestment.service.PricesImporter;
+import com.epam.cryptoinvestment.store.CryptoNameDictionary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  the file is written to its own prices directory on the test classpath and changed between
+  imports: appended rows are imported from the end of the previous import, a changed file
+  is imported again with updated prices and an unchanged file is skipped
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+@SpringBootTest
+public class IncrementalImportTest {
+
+  private static final String DIRECTORY = "incremental-prices";
+  private static final String CRYPTO = "INC";
+  private static final String FILE = "INC_values.csv";
+  private static Path file;
+
+  @Autowired
+  private PricesImporter pricesImporter;
+
+  @Autowired
+  private ImportedFilesRepository importedFilesRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private CryptoRollupRepository cryptoRollupRepository;
+
+  @Autowired
+  private CryptoNameDictionary cryptoNameDictionary;
+
+  /*
+    directory has to exist before the application starts, the file is added by the tests
+  */
+  @DynamicPropertySource
+  static void pricesDirectory(DynamicPropertyRegistry registry) throws IOException, URISyntaxException {
+    var classpathRoot = Paths.get(IncrementalImportTest.class.getResource("/").toURI());
+    var directory = Files.createDirectories(classpathRoot.resolve(DIRECTORY));
+    file = directory.resolve(FILE);
+    Files.deleteIfExists(file);
+    registry.add("prices.directory.path", () -> DIRECTORY);
+  }
+
+  @AfterAll
+  void removeFile() throws IOException {
+    Files.deleteIfExists(file);
+    jdbcTemplate.update("DELETE FROM imported_files WHERE name = ?", FILE);
+    // other tests expect only the cryptos from prices directory
+    for (var table : List.of("crypto_daily_normalized", "crypto_monthly_rollups", "crypto_daily_rollups",
+                              "cryptos")) {
+      jdbcTemplate.update("DELETE FROM " + table
+                          + " WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?)", CRYPTO);
+    }
+    jdbcTemplate.update("DELETE FROM crypto_names WHERE name = ?", CRYPTO);
+  }
+
+  @Test
+  @Order(1)
+  void testNewFileIsImported() throws IOException {
+    double rows = importedRows();
+    write("timestamp,symbol,price\n1893456000000,INC,1.5\n1893459600000,INC,2.5\n");
+    pricesImporter.importAll();
+
+    var importedFile = importedFilesRepository.findByName(FILE).orElseThrow();
+    assertEquals(ImportStatus.IMPORTED, importedFile.getStatus());
+    assertEquals(2, importedFile.getRowsImported());
+    assertEquals(Files.size(file), importedFile.getImportedOffset());
+    assertEquals(Files.size(file), importedFile.getSize());
+    assertEquals(List.of(1.5, 2.5), prices());
+    assertEquals(rows + 2, importedRows());
+    assertEquals(new CryptoPrice(CRYPTO, 1.0 / 1.5), maxNormalized());
+    assertTrue(cryptoNameDictionary.find(CRYPTO).isPresent());
+  }
+
+  /*
+    the first row is removed from the database, it is not imported again,
+    because only appended rows are read
+  */
+  @Test
+  @Order(2)
+  void testAppendedRowsAreImportedFromTheEndOfPreviousImport() throws IOException {
+    jdbcTemplate.update("DELETE FROM cryptos WHERE timestamp = to_timestamp(1893456000) AT TIME ZONE 'UTC'");
+    Files.writeString(file, "1893463200000,INC,3.5\n", StandardOpenOption.APPEND);
+    pricesImporter.importAll();
+
+    var importedFile = importedFilesRepository.findByName(FILE).orElseThrow();
+    assertEquals(3, importedFile.getRowsImported());
+    assertEquals(Files.size(file), importedFile.getImportedOffset());
+    assertEquals(List.of(2.5, 3.5), prices());
+  }
+
+  @Test
+  @Order(3)
+  void testUnchangedFileIsSkipped() {
+    var finishedAt = importedFilesRepository.findByName(FILE).orElseThrow().getFinishedAt();
+    pricesImporter.importAll();
+
+    assertEquals(finishedAt, importedFilesRepository.findByName(FILE).orElseThrow().getFinishedAt());
+  }
+
+  /*
+    the imported part has changed (same size), the whole file is imported again,
+    the price is updated and the removed row is back
+  */
+  @Test
+  @Order(4)
+  void testChangedFileIsImportedAgain() throws IOException {
+    write("timestamp,symbol,price\n1893456000000,INC,1.5\n1893459600000,INC,7.5\n1893463200000,INC,3.5\n");
+    pricesImporter.importAll();
+
+    var importedFile = importedFilesRepository.findByName(FILE).orElseThrow();
+    assertEquals(ImportStatus.IMPORTED, importedFile.getStatus());
+    assertEquals(3, importedFile.getRowsImported());
+    assertEquals(List.of(1.5, 7.5, 3.5), prices());
+    assertEquals(new CryptoPrice(CRYPTO, 6.0 / 1.5), maxNormalized());
+  }
+
+  /*
+    the last line without line break may still be written, it is imported,
+    but the next import starts from its beginning and updates its price
+  */
+  @Test
+  @Order(5)
+  void testLineWithoutLineBreakIsReadAgain() throws IOException {
+    long size = Files.size(file);
+    Files.writeString(file, "1893466800000,INC,4", StandardOpenOption.APPEND);
+    pricesImporter.importAll();
+
+    var importedFile = importedFilesRepository.findByName(FILE).orElseThrow();
+    assertEquals(size, importedFile.getImportedOffset());
+    assertTrue(prices().contains(4.0));
+
+    Files.writeString(file, ".5\n1893470400000,INC,5.5\n", StandardOpenOption.APPEND);
+    pricesImporter.importAll();
+
+    importedFile = importedFilesRepository.findByName(FILE).orElseThrow();
+    assertEquals(Files.size(file), importedFile.getImportedOffset());
+    assertEquals(List.of(1.5, 7.5, 3.5, 4.5, 5.5), prices());
+  }
+
+  // counter is registered with the first imported file, it may be this one
+  private double importedRows() {
+    var counter = meterRegistry.find("prices.import.rows").counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private void write(String content) throws IOException {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // all prices of the file are on the same day
+  private CryptoPrice maxNormalized() {
+    return cryptoRollupRepository.findMaxNormalized(LocalDate.of(2030, 1, 1)).orElseThrow();
+  }
+
+  private List<Double> prices() {
+    return jdbcTemplate.queryForList(
+        "SELECT price FROM cryptos WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?) "
+        + "ORDER BY timestamp", Double.class, CRYPTO);
+  }
+}
@@ -0,0 +1,54 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  stages of a normalized prices request and repository calls are measured, the month starts
+  on a day no other test uses, so it is not in the cache and all the stages run
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class InstrumentationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  void testStagesOfNormalizedPrices() throws Exception {
+    mockMvc.perform(post("/api/v1/stats/normalized")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\": \"2022-1-7\", \"months\": 1}"))
+           .andExpect(status().isOk());
+
+    for (var stage : new String[] {"parse-date", "normalized-prices", "price-ranges", "sort"}) {
+      var timer = meterRegistry.find("stats.stage")
+                               .tags("stage", stage, "endpoint", "/api/v1/stats/normalized")
+                               .timer();
+      assertNotNull(timer, stage);
+      assertTrue(timer.count() > 0, stage);
+    }
+    // imported files are checked by the repository on startup
+    assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                               .tags("repository", "ImportedFilesRepository")
+                               .timer());
+  }
+}
@@ -0,0 +1,120 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.epam.cryptoinvestment.csv.PriceCsvParser;
+import com.epam.cryptoinvestment.csv.PriceRowHandler;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PriceCsvParserTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static class Rows implements PriceRowHandler {
+    final List<Long> timestamps = new ArrayList<>();
+    final List<String> symbols = new ArrayList<>();
+    final List<Double> prices = new ArrayList<>();
+    final List<Long> invalidLines = new ArrayList<>();
+
+    @Override
+    public void onRow(long timestamp, String symbol, double price) {
+      timestamps.add(timestamp);
+      symbols.add(symbol);
+      prices.add(price);
+    }
+
+    @Override
+    public void onInvalidLine(long lineNumber) {
+      invalidLines.add(lineNumber);
+    }
+  }
+
+  private Rows parse(String csv) throws IOException {
+    var rows = new Rows();
+    new PriceCsvParser().parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), rows);
+    return rows;
+  }
+
+  /*
+    BTC test file has one corrupted line, it should be skipped and the other 10 rows parsed
+  */
+  @Test
+  void testCorruptedLineIsSkipped() throws Exception {
+    var file = Paths.get(getClass().getClassLoader().getResource("prices/BTC_values.csv").toURI());
+    var rows = new Rows();
+    new PriceCsvParser().parse(file, rows);
+    assertEquals(10, rows.timestamps.size());
+    assertEquals(List.of(4L), rows.invalidLines);
+    assertEquals(1641009600000L, rows.timestamps.get(0));
+    assertEquals(10, rows.prices.get(9));
+  }
+
+  @Test
+  void testSymbolsAreInterned() throws IOException {
+    var rows = parse("timestamp,symbol,price\n1,BTC,1\n2,ETH,2\n3,BTC,3\n");
+    assertEquals(List.of("BTC", "ETH", "BTC"), rows.symbols);
+    assertSame(rows.symbols.get(0), rows.symbols.get(2));
+  }
+
+  @Test
+  void testLineEndingsQuotesAndInvalidLines() throws IOException {
+    var rows = parse("timestamp,symbol,price\r\n"
+                     + "1,BTC,1.5\r\n"
+                     + "\"2\",\"BTC\",\"2.5\"\r\n"
+                     + "3,BTC\r\n"
+                     + "4,BTC,4,4\n"
+                     + "x,BTC,5\n"
+                     + "\n"
+                     + "6,BTC,6e2");
+    assertEquals(List.of(1L, 2L, 6L), rows.timestamps);
+    assertEquals(List.of(1.5, 2.5, 600.0), rows.prices);
+    assertEquals(List.of(3L, 4L, 5L, 6L), rows.invalidLines);
+  }
+
+  @Test
+  void testPricesAreTheSameAsDoubleParseDouble() throws IOException {
+    var random = new Random(42);
+    var csv = new StringBuilder();
+    var expected = new ArrayList<Double>();
+    for (int i = 0; i < 10_000; i++) {
+      var price = String.format("%d.%0" + (1 + random.nextInt(12)) + "d",
+                                random.nextInt(100_000), Math.abs(random.nextInt()) % 1_000_000);
+      csv.append(i).append(",BTC,").append(price).append('\n');
+      expected.add(Double.parseDouble(price));
+    }
+    assertEquals(expected, parse(csv.toString()).prices);
+  }
+
+  /*
+    file is bigger than the stream buffer, so some lines are split between two reads
+  */
+  @Test
+  void testMappedFileAndStreamGiveTheSameRows() throws IOException {
+    var csv = new StringBuilder("timestamp,symbol,price\n");
+    for (int i = 0; i < 100_000; i++) {
+      csv.append(1641009600000L + i).append(i % 2 == 0 ? ",BTC," : ",ETH,").append(i / 7.0).append('\n');
+    }
+    var file = tempDir.resolve("prices.csv");
+    Files.writeString(file, csv);
+
+    var mapped = new Rows();
+    new PriceCsvParser().parse(file, mapped);
+    var streamed = parse(csv.toString());
+    assertEquals(100_000, mapped.timestamps.size());
+    assertEquals(mapped.timestamps, streamed.timestamps);
+    assertEquals(mapped.symbols, streamed.symbols);
+    assertEquals(mapped.prices, streamed.prices);
+  }
+}
@@ -0,0 +1,134 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.epam.cryptoinvestment.entities.ImportedFileEntity;
+import com.epam.cryptoinvestment.model.ImportStatus;
+import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  files written to the watched directory while the application is running are imported
+  without calling the importer
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@TestMethodOrder(OrderAnnotation.class)
+@SpringBootTest(properties = "prices.watch.debounce-millis=200")
+public class PricesDirectoryWatcherTest {
+
+  private static final String CRYPTO = "WATCH";
+  private static final String FILE = "WATCH_values.csv";
+  private static final long TIMEOUT_MILLIS = 15_000;
+  private static Path directory;
+
+  @Autowired
+  private ImportedFilesRepository importedFilesRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void watchDirectory(DynamicPropertyRegistry registry) throws IOException {
+    directory = Files.createTempDirectory("prices-watch");
+    registry.add("prices.watch.directory", () -> directory.toString());
+  }
+
+  @AfterAll
+  void removeFile() throws IOException {
+    Files.deleteIfExists(directory.resolve(FILE));
+    Files.deleteIfExists(directory);
+    jdbcTemplate.update("DELETE FROM imported_files WHERE name = ?", importedFileName());
+    // other tests expect only the cryptos from prices directory
+    for (var table : List.of("crypto_daily_normalized", "crypto_monthly_rollups", "crypto_daily_rollups",
+                              "cryptos")) {
+      jdbcTemplate.update("DELETE FROM " + table
+                          + " WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?)", CRYPTO);
+    }
+    jdbcTemplate.update("DELETE FROM crypto_names WHERE name = ?", CRYPTO);
+  }
+
+  @Test
+  @Order(1)
+  void testNewFileIsImported() throws IOException, InterruptedException {
+    Files.writeString(directory.resolve(FILE), "timestamp,symbol,price\n1956528000000,WATCH,1.5\n");
+    Files.writeString(directory.resolve(FILE), "1956531600000,WATCH,2.5\n", StandardOpenOption.APPEND);
+
+    var importedFile = awaitImportedFile(file -> file.getRowsImported() == 2);
+
+    assertEquals(ImportStatus.IMPORTED, importedFile.getStatus());
+    assertEquals(List.of(1.5, 2.5), prices());
+    // the name without directory is left for the file from prices directory
+    assertTrue(importedFilesRepository.findByName(FILE).isEmpty());
+    // a late modify event can queue the file again (it is skipped as nothing new), so wait for it
+    awaitEmptyQueue();
+    assertTrue(meterRegistry.get("prices.ingest.lag").timer().count() >= 1);
+  }
+
+  @Test
+  @Order(2)
+  void testAppendedRowsAreImported() throws IOException, InterruptedException {
+    Files.writeString(directory.resolve(FILE), "1956535200000,WATCH,3.5\n", StandardOpenOption.APPEND);
+
+    awaitImportedFile(file -> file.getRowsImported() == 3);
+
+    assertEquals(List.of(1.5, 2.5, 3.5), prices());
+  }
+
+  private void awaitEmptyQueue() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (meterRegistry.get("prices.ingest.queue").gauge().value() != 0) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("queue is not empty after " + TIMEOUT_MILLIS + " ms");
+      }
+      Thread.sleep(100);
+    }
+  }
+
+  private ImportedFileEntity awaitImportedFile(Predicate<ImportedFileEntity> condition)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      var importedFile = importedFilesRepository.findByName(importedFileName());
+      if (importedFile.isPresent() && importedFile.get().getStatus() == ImportStatus.IMPORTED
+          && condition.test(importedFile.get())) {
+        return importedFile.get();
+      }
+      Thread.sleep(100);
+    }
+    throw new AssertionError(FILE + " was not imported in " + TIMEOUT_MILLIS + " ms");
+  }
+
+  private static String importedFileName() {
+    return directory.resolve(FILE).toAbsolutePath().normalize().toString();
+  }
+
+  private List<Double> prices() {
+    return jdbcTemplate.queryForList(
+        "SELECT price FROM cryptos WHERE crypto_name_id = (SELECT id FROM crypto_names WHERE name = ?) "
+        + "ORDER BY timestamp", Double.class, CRYPTO);
+  }
+}
@@ -0,0 +1,103 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class PricesExportTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testCsvExport() throws Exception {
+    export("/api/v1/export/prices?cryptos=BTC,ETH&start=2022-1-1&days=1&format=CSV")
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/csv"))
+        .andExpect(content().string("timestamp,symbol,price\n"
+                                    + "1641009600000,BTC,1.0\n"
+                                    + "1641020400000,BTC,2.0\n"
+                                    + "1641031200000,BTC,3.0\n"
+                                    + "1641034800000,BTC,4.0\n"
+                                    + "1641045600000,BTC,5.0\n"
+                                    + "1641024000000,ETH,3.0\n"
+                                    + "1641031200000,ETH,3.0\n"
+                                    + "1641049200000,ETH,3.0\n"
+                                    + "1641056400000,ETH,4.0\n"));
+  }
+
+  @Test
+  void testNdjsonExport() throws Exception {
+    export("/api/v1/export/prices?cryptos=XRP&start=2022-1-1&days=-1")
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string("{\"symbol\":\"XRP\",\"timestamp\":1640995200000,\"price\":5.0}\n"
+                                    + "{\"symbol\":\"XRP\",\"timestamp\":1641016800000,\"price\":5.0}\n"
+                                    + "{\"symbol\":\"XRP\",\"timestamp\":1641070800000,\"price\":5.0}\n"));
+  }
+
+  @Test
+  void testEmptyRange() throws Exception {
+    export("/api/v1/export/prices?cryptos=XRP&start=2030-1-1&days=1&format=CSV")
+        .andExpect(status().isOk())
+        .andExpect(content().string("timestamp,symbol,price\n"));
+  }
+
+  @Test
+  void testUnknownCrypto() throws Exception {
+    mockMvc.perform(get("/api/v1/export/prices?cryptos=BTC,UNKNOWN&start=2022-1-1&days=1"))
+           .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void testZeroDays() throws Exception {
+    mockMvc.perform(get("/api/v1/export/prices?cryptos=BTC&start=2022-1-1&days=0"))
+           .andExpect(status().isBadRequest());
+  }
+
+  // only the export gets the long timeout, other asynchronous requests keep the default one
+  @Test
+  void testOnlyExportHasLongTimeout() throws Exception {
+    var export = mockMvc.perform(get("/api/v1/export/prices?cryptos=XRP&start=2022-1-1&days=1"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+    assertEquals(TimeUnit.MINUTES.toMillis(30), export.getRequest().getAsyncContext().getTimeout());
+
+    var stats = mockMvc.perform(post("/api/v1/stats/crypto/XRP")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"start\": \"2022-1-1\", \"months\": 1}"))
+                       .andExpect(request().asyncStarted())
+                       .andReturn();
+    assertNotEquals(TimeUnit.MINUTES.toMillis(30), stats.getRequest().getAsyncContext().getTimeout());
+    mockMvc.perform(asyncDispatch(export));
+    mockMvc.perform(asyncDispatch(stats));
+  }
+
+  private ResultActions export(String url) throws Exception {
+    var result = mockMvc.perform(get(url))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+    return mockMvc.perform(asyncDispatch(result));
+  }
+}
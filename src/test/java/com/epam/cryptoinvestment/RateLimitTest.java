@@ -1,14 +1,26 @@
 package com.epam.cryptoinvestment;
 
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.SharedHttpSessionConfigurer.sharedHttpSession;
 
+import com.epam.cryptoinvestment.ratelimit.JdbcRateLimitBackend;
+import com.epam.cryptoinvestment.ratelimit.RateLimitBackend;
+import com.epam.cryptoinvestment.requests.BatchStatsItem;
+import com.epam.cryptoinvestment.requests.BatchStatsRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import java.time.Duration;
+import java.util.Collections;
 import org.junit.Before;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
@@ -19,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
@@ -32,12 +45,23 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 @TestMethodOrder(OrderAnnotation.class)
 @AutoConfigureMockMvc
 @WebAppConfiguration
-@SpringBootTest
+@SpringBootTest(properties = {"rate-limit.client.enabled=true",
+                              "rate-limit.client.api-keys=client-key, batch-key"})
 public class RateLimitTest {
   @Autowired
   MockMvc mockMvc;
 
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  RateLimiterRegistry rateLimiterRegistry;
+
+  @Autowired
+  RateLimitBackend rateLimitBackend;
+
   @Test
+  @Order(1)
   void testRateLimit() throws Exception {
 
     for (int i = 0; i < 20; i++) {
@@ -52,4 +76,107 @@ public class RateLimitTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isTooManyRequests());
   }
+
+  /*
+    the client of testRateLimit (no api key, 127.0.0.1) is out of permits now,
+    other clients are not affected
+  */
+  @Test
+  @Order(2)
+  void testClientsHaveSeparateLimits() throws Exception {
+    this.mockMvc.perform(
+            get("/api/v1/stats/normalized/last-month")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests());
+
+    this.mockMvc.perform(
+            get("/api/v1/stats/normalized/last-month")
+                .header("X-API-Key", "client-key")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+    this.mockMvc.perform(
+            get("/api/v1/stats/normalized/last-month")
+                .with(request -> {
+                  request.setRemoteAddr("10.0.0.2");
+                  return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+  }
+
+  // a key which is not configured doesn't get a new limit, it is the client of its ip address
+  @Test
+  @Order(3)
+  void testUnknownKeysAreLimitedByIpAddress() throws Exception {
+    this.mockMvc.perform(
+            get("/api/v1/stats/normalized/last-month")
+                .header("X-API-Key", "unknown-key")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests());
+  }
+
+  // 240 items take 12 permits of the client, not only the one of the request
+  @Test
+  @Order(4)
+  void testBatchTakesItsWeightFromClient() throws Exception {
+    var batch = new ObjectMapper().writeValueAsString(new BatchStatsRequest(
+        Collections.nCopies(240, new BatchStatsItem("BTC", "2022-1-1", 1, 0))));
+
+    this.mockMvc.perform(
+            post("/api/v1/stats/batch")
+                .header("X-API-Key", "batch-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+                .andExpect(status().isOk());
+
+    this.mockMvc.perform(
+            post("/api/v1/stats/batch")
+                .header("X-API-Key", "batch-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+                .andExpect(status().isTooManyRequests());
+  }
+
+  // two instances with the jdbc backend share the limit of a client
+  @Test
+  @Order(5)
+  void testLimitIsSharedBetweenInstances() {
+    var first = new JdbcRateLimitBackend(jdbcTemplate, 20, Duration.ofMinutes(1));
+    var second = new JdbcRateLimitBackend(jdbcTemplate, 20, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(first.tryAcquire("shared", 1));
+      assertTrue(second.tryAcquire("shared", 1));
+    }
+    assertFalse(first.tryAcquire("shared", 1));
+    assertFalse(second.tryAcquire("shared", 1));
+    assertTrue(second.tryAcquire("other", 20));
+
+    jdbcTemplate.update("DELETE FROM client_rate_limits");
+  }
+
+  /*
+    a batch which the instance doesn't take (its limiter is drained) takes only the permit
+    of the request from the client, not the rest of its weight
+  */
+  @Test
+  @Order(6)
+  void testRejectedBatchDoesntTakeItsWeightFromClient() throws Exception {
+    var batch = new ObjectMapper().writeValueAsString(new BatchStatsRequest(
+        Collections.nCopies(240, new BatchStatsItem("BTC", "2022-1-1", 1, 0))));
+    rateLimiterRegistry.rateLimiter("cryptoService").drainPermissions();
+
+    this.mockMvc.perform(
+            post("/api/v1/stats/batch")
+                .with(request -> {
+                  request.setRemoteAddr("10.0.0.3");
+                  return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+                .andExpect(status().isTooManyRequests());
+
+    assertTrue(rateLimitBackend.tryAcquire("ip:10.0.0.3", 19));
+  }
 }
@@ -0,0 +1,102 @@
+package com.epam.cryptoinvestment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.epam.cryptoinvestment.model.RollingStep;
+import com.epam.cryptoinvestment.requests.DayRequest;
+import com.epam.cryptoinvestment.requests.MonthRequest;
+import com.epam.cryptoinvestment.requests.RollingRequest;
+import com.epam.cryptoinvestment.service.CryptoInvestment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/*
+  every window of the rolling series has to be the same as a single request for its range,
+  prices are read from the database here (see CryptoSeriesStoreTest for prices in memory)
+*/
+@Testcontainers
+@TestInstance(Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class RollingNormalizedTest {
+
+  @Autowired
+  private CryptoInvestment cryptoService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testEveryDayIsTheSameAsMaxNormalized() {
+    assertSameAsMaxNormalized(cryptoService, "2022-1-1", 31);
+    assertSameAsMaxNormalized(cryptoService, "2022-1-31", -31);
+  }
+
+  @Test
+  void testMonthIsTheSameAsNormalizedForMonth() {
+    var windows = cryptoService.getRollingNormalizedPrices(new RollingRequest("2022-1-1", 31, RollingStep.MONTH, 1));
+
+    assertEquals(1, windows.size());
+    assertEquals(cryptoService.getNormalizedPricesForMonth(new MonthRequest("2022-1-1", 1)),
+                 windows.get(0).getNormalizedPrices());
+  }
+
+  @Test
+  void testWindowOfManySteps() {
+    var windows = cryptoService.getRollingNormalizedPrices(new RollingRequest("2022-1-1", 31, RollingStep.DAY, 7));
+    var firstWeek = cryptoService.getMaxNormalizedCrypto(new DayRequest("2022-1-1", 7));
+
+    assertEquals(31, windows.size());
+    assertEquals(firstWeek, windows.get(6).getNormalizedPrices().get(0));
+  }
+
+  @Test
+  void testEndpoint() throws Exception {
+    rolling("{\"start\": \"2022-1-1\", \"days\": 14, \"step\": \"WEEK\"}")
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.windows.length()").value(2))
+        .andExpect(jsonPath("$.windows[0].normalized_prices[0].name").value("BTC"));
+  }
+
+  @Test
+  void testIncorrectRequests() throws Exception {
+    rolling("{\"start\": \"2022-1-1\", \"days\": 0, \"step\": \"DAY\"}").andExpect(status().isBadRequest());
+    rolling("{\"start\": \"2022-1-1\", \"days\": 5000, \"step\": \"DAY\"}").andExpect(status().isBadRequest());
+    rolling("{\"start\": \"2022-1-1\", \"days\": 5, \"step\": \"DAY\", \"window\": 0}")
+        .andExpect(status().isBadRequest());
+    rolling("{\"start\": \"2022-1-1\", \"days\": 5, \"step\": \"YEAR\"}").andExpect(status().isBadRequest());
+  }
+
+  static void assertSameAsMaxNormalized(CryptoInvestment cryptoService, String start, int days) {
+    var windows = cryptoService.getRollingNormalizedPrices(new RollingRequest(start, days, RollingStep.DAY, 1));
+
+    assertEquals(Math.abs(days), windows.size());
+    var day = windows.get(0).getStart().toLocalDate();
+    for (var window : windows) {
+      var maxNormalized = cryptoService.getMaxNormalizedCrypto(new DayRequest(day.toString(), 1));
+      if (window.getNormalizedPrices().isEmpty()) {
+        assertEquals(-1, maxNormalized.getPrice(), day.toString());
+      } else {
+        assertEquals(maxNormalized, window.getNormalizedPrices().get(0), day.toString());
+      }
+      day = day.plusDays(1);
+    }
+  }
+
+  private ResultActions rolling(String body) throws Exception {
+    return mockMvc.perform(post("/api/v1/stats/normalized/rolling")
+                               .contentType(MediaType.APPLICATION_JSON)
+                               .content(body));
+  }
+}
@@ -1,12 +1,15 @@
 package com.epam.cryptoinvestment;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.epam.cryptoinvestment.entities.CryptoEntity;
 import com.epam.cryptoinvestment.entities.CryptoNameEntity;
+import com.epam.cryptoinvestment.model.ImportStatus;
 import com.epam.cryptoinvestment.repository.CryptoNamesRepository;
 import com.epam.cryptoinvestment.repository.CryptoRepository;
+import com.epam.cryptoinvestment.repository.ImportedFilesRepository;
 import java.util.List;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Test;
@@ -34,6 +37,9 @@ public class TestCsvFilesImport {
   @Autowired
   private CryptoNamesRepository cryptoNamesRepository;
 
+  @Autowired
+  private ImportedFilesRepository importedFilesRepository;
+
 
   /*
     I left duplicate values in XRP, so if it is ignores there should be
@@ -60,4 +66,21 @@ public class TestCsvFilesImport {
     assertEquals(10, byNameId.size());
   }
 
+  /*
+    every file is imported on its own, so each of them should have its own
+    progress record with the number of rows which were read from it
+  */
+
+  @Test
+  void testImportedFilesProgressIsRecorded() {
+    var files = importedFilesRepository.findAll();
+    assertEquals(5, files.size());
+    files.forEach(file -> assertEquals(ImportStatus.IMPORTED, file.getStatus()));
+
+    var btc = importedFilesRepository.findByName("BTC_values.csv").orElseThrow();
+    assertEquals(10, btc.getRowsImported());
+    assertNotNull(btc.getStartedAt());
+    assertNotNull(btc.getFinishedAt());
+  }
+
 }
@@ -0,0 +1,95 @@
+package com.epam.cryptoinvestment.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/*
+  rolling normalized ranges are compared with a plain scan of the prices of every window,
+  prices are small integers so there are a lot of ties, timestamps have gaps so some
+  windows are empty
+*/
+public class RollingNormalizedRangeTest {
+
+  private final Random random = new Random(42);
+
+  @Test
+  void testSlidingWindowsAreTheSameAsScan() {
+    var timestamps = new long[5_000];
+    var prices = new double[timestamps.length];
+    long timestamp = 0;
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamp += random.nextInt(10) == 0 ? 500 : 1 + random.nextInt(20);
+      timestamps[i] = timestamp;
+      prices[i] = 1 + random.nextInt(50);
+    }
+
+    for (long windowLength : new long[] {50, 1_000, 10_000}) {
+      for (long step : new long[] {25, 300, 5_000}) {
+        check(timestamps, prices, windowLength, step);
+      }
+    }
+  }
+
+  // every price stays in one of the deques until it leaves the window, so they have to grow
+  @Test
+  void testIncreasingAndDecreasingPrices() {
+    var timestamps = new long[1_000];
+    var increasing = new double[timestamps.length];
+    var decreasing = new double[timestamps.length];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = i;
+      increasing[i] = i + 1;
+      decreasing[i] = timestamps.length - i;
+    }
+
+    check(timestamps, increasing, 300, 7);
+    check(timestamps, decreasing, 300, 7);
+  }
+
+  @Test
+  void testNoPrices() {
+    var rolling = new RollingNormalizedRange(new long[] {0, 10}, new long[] {10, 20});
+
+    assertArrayEquals(new double[] {Double.NaN, Double.NaN}, rolling.finish());
+  }
+
+  private void check(long[] timestamps, double[] prices, long windowLength, long step) {
+    int windows = (int) (timestamps[timestamps.length - 1] / step) + 2;
+    var starts = new long[windows];
+    var ends = new long[windows];
+    for (int i = 0; i < windows; i++) {
+      ends[i] = (i + 1) * step;
+      starts[i] = ends[i] - windowLength;
+    }
+
+    var rolling = new RollingNormalizedRange(starts, ends);
+    for (int i = 0; i < timestamps.length; i++) {
+      rolling.accept(timestamps[i], prices[i]);
+    }
+
+    assertArrayEquals(scan(timestamps, prices, starts, ends), rolling.finish(),
+                      "window " + windowLength + ", step " + step);
+  }
+
+  private static double[] scan(long[] timestamps, double[] prices, long[] starts, long[] ends) {
+    var normalized = new double[starts.length];
+    Arrays.fill(normalized, Double.NaN);
+    for (int w = 0; w < starts.length; w++) {
+      double min = Double.MAX_VALUE;
+      double max = -Double.MAX_VALUE;
+      for (int i = 0; i < timestamps.length; i++) {
+        if (timestamps[i] >= starts[w] && timestamps[i] < ends[w]) {
+          min = Math.min(min, prices[i]);
+          max = Math.max(max, prices[i]);
+        }
+      }
+      if (min != Double.MAX_VALUE) {
+        normalized[w] = (max - min) / min;
+      }
+    }
+    return normalized;
+  }
+}
@@ -0,0 +1,59 @@
+package com.epam.cryptoinvestment.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/*
+  top k is compared with the first k elements of the sorted list, values are small integers
+  so there are a lot of ties, they are ordered by the second comparator (index)
+*/
+public class TopKTest {
+
+  private static final Comparator<int[]> DESCENDING =
+      Comparator.<int[]>comparingInt(element -> element[0]).reversed().thenComparingInt(element -> element[1]);
+
+  private final Random random = new Random(42);
+
+  @Test
+  void testTheSameAsSorted() {
+    var elements = randomElements(10_000);
+    var sorted = elements.stream().sorted(DESCENDING).collect(Collectors.toList());
+
+    for (int k : new int[] {1, 2, 10, 1_000, 10_000, 20_000}) {
+      var expected = sorted.subList(0, Math.min(k, sorted.size()));
+      assertEquals(toString(expected), toString(elements.stream().collect(TopK.collector(k, DESCENDING))));
+      // every fork-join task selects from its part and the parts are merged
+      assertEquals(toString(expected),
+                   toString(elements.parallelStream().collect(TopK.collector(k, DESCENDING))));
+    }
+  }
+
+  @Test
+  void testNoElements() {
+    assertEquals(List.of(), List.<int[]>of().stream().collect(TopK.collector(3, DESCENDING)));
+  }
+
+  @Test
+  void testIncorrectK() {
+    assertThrows(IllegalArgumentException.class, () -> new TopK<>(0, DESCENDING));
+  }
+
+  private List<int[]> randomElements(int size) {
+    var elements = new ArrayList<int[]>(size);
+    for (int i = 0; i < size; i++) {
+      elements.add(new int[] {random.nextInt(100), i});
+    }
+    return elements;
+  }
+
+  private static List<String> toString(List<int[]> elements) {
+    return elements.stream().map(element -> element[0] + ":" + element[1]).collect(Collectors.toList());
+  }
+}
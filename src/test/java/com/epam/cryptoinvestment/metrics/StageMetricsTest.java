@@ -0,0 +1,64 @@
+package com.epam.cryptoinvestment.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+public class StageMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void testStagesAreTimed() {
+    var stageMetrics = new StageMetrics(meterRegistry, true);
+
+    assertEquals("BTC", stageMetrics.time("crypto-stats", "BTC", () -> "BTC"));
+    stageMetrics.time("sort", () -> { });
+    stageMetrics.timeAsync("crypto-stats", "BTC", () -> CompletableFuture.completedFuture(1)).join();
+
+    // no request, so the endpoint is none
+    assertEquals(2, meterRegistry.get("stats.stage").tags("stage", "crypto-stats", "crypto", "BTC",
+                                                          "endpoint", "none").timer().count());
+    assertEquals(1, meterRegistry.get("stats.stage").tags("stage", "sort", "crypto", "none").timer().count());
+  }
+
+  @Test
+  void testCryptoIsNotTaggedWhenStageFails() {
+    var stageMetrics = new StageMetrics(meterRegistry, true);
+
+    assertThrows(IllegalArgumentException.class, () -> stageMetrics.time("crypto-stats", "UNKNOWN", () -> {
+      throw new IllegalArgumentException();
+    }));
+
+    assertEquals(1, meterRegistry.get("stats.stage").tags("crypto", "none").timer().count());
+    assertTrue(meterRegistry.find("stats.stage").tags("crypto", "UNKNOWN").meters().isEmpty());
+  }
+
+  @Test
+  void testFileImported() {
+    var stageMetrics = new StageMetrics(meterRegistry, true);
+
+    stageMetrics.fileImported(2_000_000_000L, 1000, 3);
+
+    assertEquals(1000, meterRegistry.get("prices.import.rows").counter().count());
+    assertEquals(3, meterRegistry.get("prices.import.rows.rejected").counter().count());
+    assertEquals(500, meterRegistry.get("prices.import.throughput").summary().max());
+    assertNotNull(meterRegistry.get("prices.import.file").timer());
+  }
+
+  @Test
+  void testDisabled() {
+    var stageMetrics = new StageMetrics(meterRegistry, false);
+
+    assertEquals(1, stageMetrics.time("parse-date", () -> 1));
+    stageMetrics.timeAsync("crypto-stats", "BTC", () -> CompletableFuture.completedFuture(1)).join();
+    stageMetrics.fileImported(1, 1, 1);
+
+    assertTrue(meterRegistry.getMeters().isEmpty());
+  }
+}
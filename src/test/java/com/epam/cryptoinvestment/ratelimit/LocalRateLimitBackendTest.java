@@ -0,0 +1,83 @@
+package com.epam.cryptoinvestment.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/*
+  limit of 10 permits per 10 seconds, so a permit comes back every second,
+  time is moved by the test
+*/
+public class LocalRateLimitBackendTest {
+
+  private long now = 1_000;
+  private final LocalRateLimitBackend backend =
+      new LocalRateLimitBackend(10, Duration.ofSeconds(10), () -> now);
+
+  @Test
+  void testLimitAndRefill() {
+    for (int i = 0; i < 10; i++) {
+      assertTrue(backend.tryAcquire("a", 1));
+    }
+    assertFalse(backend.tryAcquire("a", 1));
+
+    now += TimeUnit.SECONDS.toNanos(1);
+    assertTrue(backend.tryAcquire("a", 1));
+    assertFalse(backend.tryAcquire("a", 1));
+
+    now += TimeUnit.SECONDS.toNanos(3);
+    assertTrue(backend.tryAcquire("a", 3));
+    assertFalse(backend.tryAcquire("a", 1));
+  }
+
+  @Test
+  void testClientsHaveSeparateBuckets() {
+    assertTrue(backend.tryAcquire("a", 10));
+    assertFalse(backend.tryAcquire("a", 1));
+    assertTrue(backend.tryAcquire("b", 1));
+  }
+
+  @Test
+  void testMorePermitsThanLimit() {
+    assertFalse(backend.tryAcquire("a", 11));
+    assertTrue(backend.tryAcquire("a", 10));
+  }
+
+  @Test
+  void testIdleClientsAreEvicted() {
+    backend.tryAcquire("a", 10);
+    backend.tryAcquire("b", 1);
+    assertEquals(2, backend.size());
+
+    // after a period both buckets are full again, "a" is used again so only "b" is evicted
+    now += TimeUnit.SECONDS.toNanos(10);
+    assertTrue(backend.tryAcquire("a", 10));
+    assertEquals(1, backend.size());
+    assertFalse(backend.tryAcquire("a", 1));
+  }
+
+  @Test
+  void testConcurrentClientsGetExactlyTheLimit() throws InterruptedException {
+    var realTime = new LocalRateLimitBackend(1000, Duration.ofDays(1), System::nanoTime);
+    var acquired = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 4000; i++) {
+      executor.execute(() -> {
+        if (realTime.tryAcquire("a", 1)) {
+          acquired.incrementAndGet();
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1000, acquired.get());
+  }
+}
@@ -0,0 +1,84 @@
+package com.epam.cryptoinvestment.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.epam.cryptoinvestment.entities.CryptoNameEntity;
+import com.epam.cryptoinvestment.events.PricesImportedEvent;
+import com.epam.cryptoinvestment.model.Range;
+import com.epam.cryptoinvestment.repository.CryptoNamesRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+  names are indexed in the order of their ids, names which come with an import are added
+  at the end and the indexes of the others don't change
+*/
+public class CryptoNameDictionaryTest {
+
+  private static final Range RANGE = new Range(ZonedDateTime.now(), ZonedDateTime.now());
+
+  private final CryptoNamesRepository cryptoNamesRepository = mock(CryptoNamesRepository.class);
+  private final CryptoNameDictionary dictionary = new CryptoNameDictionary(cryptoNamesRepository);
+
+  @BeforeEach
+  void load() {
+    when(cryptoNamesRepository.findAll()).thenReturn(List.of(new CryptoNameEntity(7L, "ETH"),
+                                                             new CryptoNameEntity(3L, "BTC")));
+    dictionary.load();
+  }
+
+  @Test
+  void testNamesAreIndexedByIds() {
+    assertEquals(2, dictionary.size());
+    assertEquals(new CryptoNameDictionary.Entry("BTC", 3, 0), dictionary.find("BTC").orElseThrow());
+    assertEquals(new CryptoNameDictionary.Entry("ETH", 7, 1), dictionary.get(1));
+    assertTrue(dictionary.find("XRP").isEmpty());
+  }
+
+  @Test
+  void testKnownNamesAreNotLoadedAgain() {
+    dictionary.onPricesImported(new PricesImportedEvent(Map.of("BTC", RANGE, "ETH", RANGE)));
+
+    verify(cryptoNamesRepository, times(1)).findAll();
+  }
+
+  @Test
+  void testNewNamesAreAddedAtTheEnd() {
+    when(cryptoNamesRepository.findAll()).thenReturn(List.of(new CryptoNameEntity(1L, "XRP"),
+                                                             new CryptoNameEntity(3L, "BTC"),
+                                                             new CryptoNameEntity(7L, "ETH")));
+    dictionary.onPricesImported(new PricesImportedEvent(Map.of("XRP", RANGE)));
+
+    assertEquals(List.of("BTC", "ETH", "XRP"),
+                 dictionary.findAll().stream().map(CryptoNameDictionary.Entry::getName).collect(Collectors.toList()));
+    assertEquals(2, dictionary.find("XRP").orElseThrow().getIndex());
+  }
+
+  @Test
+  void testUnknownNamesDontGoToDatabase() {
+    assertTrue(dictionary.find("DOGE").isEmpty());
+
+    verify(cryptoNamesRepository, times(1)).findAll();
+    verifyNoMoreInteractions(cryptoNamesRepository);
+  }
+
+  @Test
+  void testNamesAddedByOtherInstancesAreReloaded() {
+    when(cryptoNamesRepository.findAll()).thenReturn(List.of(new CryptoNameEntity(1L, "XRP"),
+                                                             new CryptoNameEntity(3L, "BTC"),
+                                                             new CryptoNameEntity(7L, "ETH")));
+    dictionary.reload();
+
+    assertEquals(1L, dictionary.find("XRP").orElseThrow().getId());
+  }
+}
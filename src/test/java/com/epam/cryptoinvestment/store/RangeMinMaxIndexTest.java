@@ -0,0 +1,78 @@
+package com.epam.cryptoinvestment.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/*
+  min, max and tied indexes from the index are compared with a plain scan over the prices
+  for random ranges, prices are small integers so there are a lot of ties
+*/
+public class RangeMinMaxIndexTest {
+
+  private final Random random = new Random(42);
+
+  @Test
+  void testRandomRangesAreTheSameAsScan() {
+    var builder = new CryptoSeries.Builder("BTC");
+    for (int i = 0; i < 5_000; i++) {
+      builder.add(i, random.nextInt(100));
+    }
+    checkRandomRanges(builder.build());
+  }
+
+  /*
+    appended series should give the same answers as the series built from all prices at once,
+    and the old series should still see only its own prices
+  */
+  @Test
+  void testAppendedSeriesIsTheSameAsScan() {
+    var builder = new CryptoSeries.Builder("BTC");
+    for (int i = 0; i < 1_000; i++) {
+      builder.add(i, random.nextInt(100));
+    }
+    var series = builder.build();
+    int timestamp = 1_000;
+    for (int batch = 0; batch < 20; batch++) {
+      var old = series;
+      double oldMax = old.max(0, old.size());
+      var newPrices = new CryptoSeries.Builder("BTC");
+      for (int i = random.nextInt(500); i >= 0; i--) {
+        newPrices.add(timestamp++, random.nextInt(200));
+      }
+      series = old.append(newPrices);
+
+      assertEquals(oldMax, old.max(0, old.size()));
+      checkRandomRanges(series);
+    }
+  }
+
+  private void checkRandomRanges(CryptoSeries series) {
+    for (int i = 0; i < 500; i++) {
+      int from = random.nextInt(series.size());
+      int to = from + 1 + random.nextInt(series.size() - from);
+      double min = scanMin(series, from, to);
+      double max = scanMax(series, from, to);
+
+      assertEquals(min, series.min(from, to));
+      assertEquals(max, series.max(from, to));
+      assertArrayEquals(scanIndexesOf(series, min, from, to), series.indexesOf(min, from, to));
+      assertArrayEquals(scanIndexesOf(series, max, from, to), series.indexesOf(max, from, to));
+    }
+  }
+
+  private double scanMin(CryptoSeries series, int from, int to) {
+    return IntStream.range(from, to).mapToDouble(series::getPrice).min().orElseThrow();
+  }
+
+  private double scanMax(CryptoSeries series, int from, int to) {
+    return IntStream.range(from, to).mapToDouble(series::getPrice).max().orElseThrow();
+  }
+
+  private int[] scanIndexesOf(CryptoSeries series, double price, int from, int to) {
+    return IntStream.range(from, to).filter(i -> series.getPrice(i) == price).toArray();
+  }
+}